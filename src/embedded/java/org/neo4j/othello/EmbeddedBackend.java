@@ -0,0 +1,175 @@
+package org.neo4j.othello;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+import org.neo4j.driver.Value;
+import org.neo4j.driver.Values;
+import org.neo4j.graphdb.Entity;
+import org.neo4j.graphdb.ExecutionPlanDescription;
+import org.neo4j.graphdb.GraphDatabaseService;
+import org.neo4j.graphdb.Path;
+import org.neo4j.graphdb.Result;
+import org.neo4j.graphdb.Transaction;
+import org.neo4j.graphdb.TransactionTerminatedException;
+
+/**
+ * Backend that runs the queries in an in-process Neo4j. Results are converted to
+ * driver values, nodes and relationships to maps of their properties.
+ */
+public class EmbeddedBackend implements Backend {
+	private final GraphDatabaseService db;
+	private final String name;
+
+	public EmbeddedBackend(GraphDatabaseService db, String name) {
+		this.db = db;
+		this.name = name;
+	}
+
+	@Override
+	public String getDatabaseName() {
+		return name;
+	}
+
+	@Override
+	public <T> T read(String cypher, Map<String, Object> parameters, Duration timeout,
+			Function<QueryResult, T> handler) {
+		return withTimeout(timeout, tx -> {
+			long start = System.nanoTime();
+			Result result = tx.execute(cypher, parameters);
+			QueryResult queryResult = toQueryResult(result, start);
+			if (result.getQueryStatistics().containsUpdates()) {
+				// There are no read only transactions embedded, so roll back anything that tried to write
+				throw new IllegalStateException("Writing is not allowed in a read query");
+			}
+			T t = handler.apply(queryResult);
+			tx.commit();
+			return t;
+		});
+	}
+
+	/**
+	 * Run a transaction with the timeout. The database only checks the timeout now and
+	 * then, so as a backstop the transaction is terminated here a moment after the
+	 * timeout, if it is still running.
+	 */
+	private <T> T withTimeout(Duration timeout, Function<Transaction, T> transaction) {
+		try (Transaction tx = timeout == null ? db.beginTx() : db.beginTx(timeout.toMillis(), TimeUnit.MILLISECONDS)) {
+			ScheduledFuture<?> backstop = timeout == null ? null : Backstop.schedule(timeout, tx::terminate);
+			try {
+				return transaction.apply(tx);
+			} finally {
+				if (backstop != null) {
+					backstop.cancel(false);
+				}
+			}
+		} catch (RuntimeException e) {
+			throw QueryTimeoutException.of(e, isStopped(e), timeout);
+		}
+	}
+
+	/**
+	 * If the error is the one for a transaction that timed out or was terminated.
+	 */
+	private static boolean isStopped(Throwable e) {
+		for (Throwable t = e; t != null; t = t.getCause()) {
+			if (t instanceof TransactionTerminatedException) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	@Override
+	public <T> T write(String cypher, Map<String, Object> parameters, Function<QueryResult, T> handler) {
+		try (Transaction tx = db.beginTx()) {
+			long start = System.nanoTime();
+			T t = handler.apply(toQueryResult(tx.execute(cypher, parameters), start));
+			tx.commit();
+			return t;
+		}
+	}
+
+	@Override
+	public <T> T discard(String setup, Map<String, Object> setupParameters, String cypher,
+			Map<String, Object> parameters, Duration timeout, Function<QueryResult, T> handler) {
+		// Leaving the transaction without a commit rolls it back
+		return withTimeout(timeout, tx -> {
+			if (setup != null) {
+				tx.execute(setup, setupParameters).accept(row -> true);
+			}
+			long start = System.nanoTime();
+			return handler.apply(toQueryResult(tx.execute(cypher, parameters), start));
+		});
+	}
+
+	@Override
+	public void close() {
+		// The database is shared, it is shut down by the factory
+	}
+
+	/**
+	 * @param start When the query was started, the time from then until all rows have
+	 *              been read is the time of the query, without beginning and committing
+	 *              the transaction
+	 */
+	private static QueryResult toQueryResult(Result result, long start) {
+		List<Map<String, Value>> rows = new ArrayList<>();
+		while (result.hasNext()) {
+			Map<String, Value> row = new HashMap<>();
+			result.next().forEach((key, value) -> row.put(key, toValue(value)));
+			rows.add(row);
+		}
+		long serverTimeNs = System.nanoTime() - start;
+
+		ExecutionPlanDescription plan = result.getExecutionPlanDescription();
+		if (!plan.hasProfilerStatistics()) {
+			return new QueryResult(rows, null, serverTimeNs);
+		}
+		List<QueryProfile.Operator> operators = new ArrayList<>();
+		flatten(plan, operators);
+		return new QueryResult(rows, operators, serverTimeNs);
+	}
+
+	private static void flatten(ExecutionPlanDescription plan, List<QueryProfile.Operator> operators) {
+		ExecutionPlanDescription.ProfilerStatistics statistics = plan.getProfilerStatistics();
+		Object details = plan.getArguments().get("Details");
+		operators.add(new QueryProfile.Operator(
+				plan.getName(),
+				details == null ? "" : details.toString(),
+				statistics.hasRows() ? statistics.getRows() : 0,
+				statistics.hasDbHits() ? statistics.getDbHits() : 0,
+				statistics.hasPageCacheStats() ? statistics.getPageCacheHits() : 0,
+				statistics.hasPageCacheStats() ? statistics.getPageCacheMisses() : 0,
+				statistics.hasTime() ? statistics.getTime() : 0));
+		for (ExecutionPlanDescription child : plan.getChildren()) {
+			flatten(child, operators);
+		}
+	}
+
+	private static Value toValue(Object value) {
+		if (value instanceof Entity entity) {
+			return Values.value(entity.getAllProperties());
+		}
+		if (value instanceof Path path) {
+			List<Value> nodes = new ArrayList<>();
+			path.nodes().forEach(node -> nodes.add(toValue(node)));
+			return Values.value(nodes);
+		}
+		if (value instanceof List<?> list) {
+			return Values.value(list.stream().map(EmbeddedBackend::toValue).toList());
+		}
+		if (value instanceof Map<?, ?> map) {
+			Map<String, Value> values = new HashMap<>();
+			map.forEach((k, v) -> values.put(k.toString(), toValue(v)));
+			return Values.value(values);
+		}
+		return Values.value(value);
+	}
+}
@@ -0,0 +1,32 @@
+package org.neo4j.othello;
+
+import java.nio.file.Path;
+
+import org.neo4j.configuration.GraphDatabaseSettings;
+import org.neo4j.dbms.api.DatabaseManagementService;
+import org.neo4j.dbms.api.DatabaseManagementServiceBuilder;
+
+/**
+ * Starts Neo4j in-process with its files in a directory, so that games can be
+ * played without any server or network in between.
+ */
+public class EmbeddedBackendFactory implements BackendFactory {
+	private final DatabaseManagementService managementService;
+
+	public EmbeddedBackendFactory(String directory) {
+		managementService = new DatabaseManagementServiceBuilder(Path.of(directory))
+				// Same Cypher version as Aura, the queries of the referee and the players need it
+				.setConfig(GraphDatabaseSettings.default_language, GraphDatabaseSettings.CypherVersion.Cypher25)
+				.build();
+	}
+
+	@Override
+	public Backend open(String db) {
+		return new EmbeddedBackend(managementService.database(db), db);
+	}
+
+	@Override
+	public void close() {
+		managementService.shutdown();
+	}
+}
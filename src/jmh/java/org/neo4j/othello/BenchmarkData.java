@@ -0,0 +1,64 @@
+package org.neo4j.othello;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import org.neo4j.driver.Value;
+import org.neo4j.driver.Values;
+
+/**
+ * Stand-ins for what the driver returns, so that the benchmarks need no server.
+ * Cells are built as map values of their properties, which are read the same way as
+ * the node values the driver creates from a result.
+ */
+final class BenchmarkData {
+	private BenchmarkData() {
+	}
+
+	static Value node(int row, int column, String state) {
+		Map<String, Value> properties = state == null ?
+				Map.of("row", Values.value(row), "column", Values.value(column)) :
+				Map.of("row", Values.value(row), "column", Values.value(column), "state", Values.value(state));
+		return Values.value(properties);
+	}
+
+	/**
+	 * All cells of the board as node values, in the random order a MATCH may return them.
+	 */
+	static List<Value> nodes(Board board, long seed) {
+		List<Value> nodes = new ArrayList<>();
+		for (Cell cell : board.getCells()) {
+			nodes.add(node(cell.getRow(), cell.getColumn(), cell.getState()));
+		}
+		Collections.shuffle(nodes, new Random(seed));
+		return nodes;
+	}
+
+	/**
+	 * A position reached by random moves from the opening.
+	 */
+	static BitBoard position(long seed, int moves) {
+		Random random = new Random(seed);
+		BitBoard board = new BitBoard();
+		String symbol = "X";
+		for (int i = 0; i < moves && !board.isGameOver(); i++) {
+			long legal = board.legalMoves(symbol);
+			if (legal != 0) {
+				int index = nth(legal, random.nextInt(Long.bitCount(legal)));
+				board.play(symbol, index % BitBoard.SIZE, index / BitBoard.SIZE);
+			}
+			symbol = Board.other(symbol);
+		}
+		return board;
+	}
+
+	static int nth(long mask, int n) {
+		for (int i = 0; i < n; i++) {
+			mask &= mask - 1;
+		}
+		return Long.numberOfTrailingZeros(mask);
+	}
+}
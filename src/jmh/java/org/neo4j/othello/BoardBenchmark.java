@@ -0,0 +1,57 @@
+package org.neo4j.othello;
+
+import java.util.Collection;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * The referee work done on the local board for every move.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BoardBenchmark {
+	private BitBoard board;
+
+	@Setup
+	public void setup() {
+		board = BenchmarkData.position(3, 30);
+	}
+
+	@Benchmark
+	public long legalMoves() {
+		return board.legalMoves("X");
+	}
+
+	@Benchmark
+	public void flips(Blackhole bh) {
+		for (long m = board.legalMoves("X"); m != 0; m &= m - 1) {
+			int index = Long.numberOfTrailingZeros(m);
+			bh.consume(board.flips("X", index % BitBoard.SIZE, index / BitBoard.SIZE));
+		}
+	}
+
+	@Benchmark
+	public Collection<Cell> getCells() {
+		return board.getCells();
+	}
+
+	@Benchmark
+	public BitBoard fullGame() {
+		return BenchmarkData.position(4, 100);
+	}
+}
@@ -0,0 +1,51 @@
+package org.neo4j.othello;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.neo4j.driver.Value;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CellBenchmark {
+	private List<Value> nodes;
+	private List<Cell> cells;
+
+	@Setup
+	public void setup() {
+		Board board = BenchmarkData.position(1, 30);
+		nodes = BenchmarkData.nodes(board, 1);
+		cells = nodes.stream().map(Cell::new).toList();
+	}
+
+	@Benchmark
+	public void decode(Blackhole bh) {
+		for (Value node : nodes) {
+			bh.consume(new Cell(node));
+		}
+	}
+
+	@Benchmark
+	public void asMap(Blackhole bh) {
+		for (Cell cell : cells) {
+			Map<String, Object> map = cell.asMap();
+			bh.consume(map);
+		}
+	}
+}
@@ -0,0 +1,62 @@
+package org.neo4j.othello;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Handing updates to the game frame, which is what the game loop waits for. The
+ * painting is done later on the event thread. The frame is never shown, but it
+ * needs a display, so this benchmark fails on a headless machine.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GameFrameBenchmark {
+	private GameFrame frame;
+	private Collection<Cell> state;
+	private Move move;
+
+	@Setup
+	public void setup() {
+		frame = new GameFrame(BitBoard.SIZE, BitBoard.SIZE, false, null);
+		BitBoard board = BenchmarkData.position(5, 30);
+		state = board.getCells();
+		frame.update(state);
+
+		int index = Long.numberOfTrailingZeros(board.legalMoves("X"));
+		int x = index % BitBoard.SIZE;
+		int y = index / BitBoard.SIZE;
+		move = new Move(new Cell(y, x, "X"), List.copyOf(BitBoard.toCells(board.flips("X", x, y), "X")));
+	}
+
+	@TearDown
+	public void tearDown() {
+		frame.dispose();
+	}
+
+	@Benchmark
+	public void update() {
+		frame.update(state);
+	}
+
+	@Benchmark
+	public void apply() {
+		frame.apply(move);
+	}
+}
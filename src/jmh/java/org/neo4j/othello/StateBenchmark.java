@@ -0,0 +1,70 @@
+package org.neo4j.othello;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.neo4j.driver.Value;
+import org.neo4j.driver.Values;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * What DBConnection does with query results: building the full state from all
+ * cells, and building a move from the cells read back after a write.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class StateBenchmark {
+	private List<Value> nodes;
+	private Value placed;
+	private Value flipped;
+
+	@Setup
+	public void setup() {
+		BitBoard board = BenchmarkData.position(2, 30);
+		nodes = BenchmarkData.nodes(board, 2);
+
+		// The move that turns the most bricks
+		String symbol = "X";
+		long best = 0;
+		int bestIndex = -1;
+		for (long m = board.legalMoves(symbol); m != 0; m &= m - 1) {
+			int index = Long.numberOfTrailingZeros(m);
+			long flips = board.flips(symbol, index % BitBoard.SIZE, index / BitBoard.SIZE);
+			if (Long.bitCount(flips) > Long.bitCount(best)) {
+				best = flips;
+				bestIndex = index;
+			}
+		}
+		placed = BenchmarkData.node(bestIndex / BitBoard.SIZE, bestIndex % BitBoard.SIZE, symbol);
+		List<Value> flippedNodes = new ArrayList<>();
+		for (Cell cell : BitBoard.toCells(best, symbol)) {
+			flippedNodes.add(BenchmarkData.node(cell.getRow(), cell.getColumn(), symbol));
+		}
+		flipped = Values.value(flippedNodes);
+	}
+
+	@Benchmark
+	public Collection<Cell> getState() {
+		return DBConnection.toState(nodes);
+	}
+
+	@Benchmark
+	public Move makeMove() {
+		return DBConnection.toMove(placed, flipped);
+	}
+}
@@ -0,0 +1,288 @@
+package org.neo4j.othello;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * A native player that searches the moves ahead with alpha-beta pruning, as a fast
+ * and strong opponent to measure Cypher players against. Positions are scored by
+ * where the bricks are (corners are good, the cells next to them bad) and by how
+ * many moves each side has, and finished games by the result.
+ *
+ * The strength is given after the class name: AlphaBeta-6 searches 6 moves ahead and
+ * AlphaBeta-500ms as far as it gets in half a second. Just AlphaBeta searches
+ * {@value #DEFAULT_DEPTH} moves ahead. It deepens the search one move at a time and
+ * stops when half of the time it has for the move (the time limit or what is left on
+ * the clock) has passed, playing the best move found so far. On the 8x8 board it
+ * searches on the bitboard, on other sizes on copies of the board.
+ */
+public class AlphaBeta implements NativePlayer {
+	public static final int DEFAULT_DEPTH = 6;
+	private static final int MAX_DEPTH = Board.MAX_SIZE * Board.MAX_SIZE;
+	private static final int WIN = 1_000_000;
+	private static final int INFINITY = 2 * WIN;
+	private static final int MOBILITY = 5;
+	private static final int CHECK_TIME_EVERY = 256;
+
+	// The weights of the cells in a corner of the board, by rows and columns from the edges
+	private static final int[][] CORNER_WEIGHTS = {
+			{ 100, -20, 10, 5 },
+			{ -20, -50, -2, -2 },
+			{ 10, -2, -1, -1 },
+			{ 5, -2, -1, -1 } };
+	private static final int[] BIT_WEIGHTS = weights(BitBoard.SIZE);
+	private static final int[] BIT_ORDER = order(BIT_WEIGHTS);
+
+	private final int depth;
+	private final long timeNs;
+
+	public AlphaBeta() {
+		this(DEFAULT_DEPTH, -1);
+	}
+
+	/**
+	 * @param strength The number of moves to search ahead, like 6, or the time to search,
+	 *                 like 500ms
+	 */
+	public AlphaBeta(String strength) {
+		boolean time = strength.endsWith("ms");
+		long value;
+		try {
+			value = Long.parseLong(time ? strength.substring(0, strength.length() - 2) : strength);
+		} catch (NumberFormatException e) {
+			value = 0;
+		}
+		if (value <= 0 || (!time && value > MAX_DEPTH)) {
+			throw new IllegalArgumentException("The strength of AlphaBeta should be a depth like 6 or a time " +
+					"like 500ms, but was: " + strength);
+		}
+		this.depth = time ? MAX_DEPTH : (int)value;
+		this.timeNs = time ? Duration.ofMillis(value).toNanos() : -1;
+	}
+
+	private AlphaBeta(int depth, long timeNs) {
+		this.depth = depth;
+		this.timeNs = timeNs;
+	}
+
+	@Override
+	public Cell chooseMove(Board board, String symbol, Duration timeout) {
+		long budgetNs = timeNs;
+		if (timeout != null) {
+			budgetNs = budgetNs < 0 ? timeout.toNanos() / 2 : Math.min(budgetNs, timeout.toNanos() / 2);
+		}
+		Search search = new Search(budgetNs < 0 ? Long.MAX_VALUE : System.nanoTime() + budgetNs);
+		if (board instanceof BitBoard bits) {
+			return search.root(bits.getDiscs(symbol), bits.getDiscs(Board.other(symbol)));
+		}
+		return search.root(board, symbol);
+	}
+
+	private static int[] weights(int size) {
+		int[] weights = new int[size * size];
+		for (int y = 0; y < size; y++) {
+			for (int x = 0; x < size; x++) {
+				int row = Math.min(3, Math.min(y, size - 1 - y));
+				int column = Math.min(3, Math.min(x, size - 1 - x));
+				weights[y * size + x] = CORNER_WEIGHTS[row][column];
+			}
+		}
+		return weights;
+	}
+
+	/**
+	 * The cells by weight, best first, the order in which moves are tried.
+	 */
+	private static int[] order(int[] weights) {
+		List<Integer> cells = new ArrayList<>();
+		for (int i = 0; i < weights.length; i++) {
+			cells.add(i);
+		}
+		cells.sort(Comparator.comparingInt(i -> -weights[i]));
+		return cells.stream().mapToInt(Integer::intValue).toArray();
+	}
+
+	private static int result(int difference) {
+		return difference > 0 ? WIN + difference : difference < 0 ? -WIN + difference : 0;
+	}
+
+	/**
+	 * Thrown to stop the search when the time is up.
+	 */
+	private static class TimeUp extends RuntimeException {
+		private static final long serialVersionUID = 1L;
+
+		private TimeUp() {
+			super(null, null, false, false);
+		}
+	}
+
+	/**
+	 * One search for a move. The best move of each depth is tried first at the next
+	 * depth, and the move of the last depth that was searched to the end is played.
+	 */
+	private class Search {
+		private final long deadlineNs;
+		private long nodes = 0;
+
+		private Search(long deadlineNs) {
+			this.deadlineNs = deadlineNs;
+		}
+
+		private void visit() {
+			if (++nodes % CHECK_TIME_EVERY == 0 && System.nanoTime() > deadlineNs) {
+				throw new TimeUp();
+			}
+		}
+
+		private Cell root(long own, long opponent) {
+			long moves = BitBoard.legalMoves(own, opponent);
+			int best = Long.numberOfTrailingZeros(moves);
+			int empty = Long.bitCount(~(own | opponent));
+			try {
+				for (int d = 1; d <= depth; d++) {
+					int alpha = -INFINITY;
+					int bestOfDepth = best;
+					for (int i = -1; i < BIT_ORDER.length; i++) {
+						int cell = i < 0 ? best : BIT_ORDER[i];
+						long move = 1L << cell;
+						if ((moves & move) == 0 || (i >= 0 && cell == best)) {
+							continue;
+						}
+						long flips = BitBoard.flips(own, opponent, move);
+						int score = -negamax(opponent & ~flips, own | move | flips, d - 1, -INFINITY, -alpha);
+						if (score > alpha) {
+							alpha = score;
+							bestOfDepth = cell;
+						}
+					}
+					best = bestOfDepth;
+					if (d >= empty) {
+						break; // Searched to the end of the game
+					}
+				}
+			} catch (TimeUp e) {
+				// Play the best move of the last depth searched
+			}
+			return new Cell(best / BitBoard.SIZE, best % BitBoard.SIZE, null);
+		}
+
+		private int negamax(long own, long opponent, int depth, int alpha, int beta) {
+			visit();
+			long moves = BitBoard.legalMoves(own, opponent);
+			if (moves == 0) {
+				if (BitBoard.legalMoves(opponent, own) == 0) {
+					return result(Long.bitCount(own) - Long.bitCount(opponent));
+				}
+				return -negamax(opponent, own, depth, -beta, -alpha);
+			}
+			if (depth == 0) {
+				return weight(own) - weight(opponent) +
+						MOBILITY * (Long.bitCount(moves) - Long.bitCount(BitBoard.legalMoves(opponent, own)));
+			}
+			for (int cell : BIT_ORDER) {
+				long move = 1L << cell;
+				if ((moves & move) == 0) {
+					continue;
+				}
+				long flips = BitBoard.flips(own, opponent, move);
+				int score = -negamax(opponent & ~flips, own | move | flips, depth - 1, -beta, -alpha);
+				if (score > alpha) {
+					alpha = score;
+					if (alpha >= beta) {
+						break;
+					}
+				}
+			}
+			return alpha;
+		}
+
+		private int weight(long bricks) {
+			int weight = 0;
+			for (long b = bricks; b != 0; b &= b - 1) {
+				weight += BIT_WEIGHTS[Long.numberOfTrailingZeros(b)];
+			}
+			return weight;
+		}
+
+		private Cell root(Board board, String symbol) {
+			int[] weights = weights(board.getSize());
+			List<Cell> moves = ordered(board.getLegalMoves(symbol), board.getSize(), weights);
+			Cell best = moves.get(0);
+			int empty = board.getSize() * board.getSize() - board.count("X") - board.count("O");
+			try {
+				for (int d = 1; d <= depth; d++) {
+					int alpha = -INFINITY;
+					Cell bestOfDepth = best;
+					moves.remove(best);
+					moves.add(0, best);
+					for (Cell move : moves) {
+						Board next = board.copy();
+						next.play(symbol, move.getX(), move.getY());
+						int score = -negamax(next, Board.other(symbol), weights, d - 1, -INFINITY, -alpha);
+						if (score > alpha) {
+							alpha = score;
+							bestOfDepth = move;
+						}
+					}
+					best = bestOfDepth;
+					if (d >= empty) {
+						break;
+					}
+				}
+			} catch (TimeUp e) {
+				// Play the best move of the last depth searched
+			}
+			return best;
+		}
+
+		private int negamax(Board board, String symbol, int[] weights, int depth, int alpha, int beta) {
+			visit();
+			String other = Board.other(symbol);
+			List<Cell> moves = ordered(board.getLegalMoves(symbol), board.getSize(), weights);
+			if (moves.isEmpty()) {
+				if (!board.hasLegalMove(other)) {
+					return result(board.count(symbol) - board.count(other));
+				}
+				return -negamax(board, other, weights, depth, -beta, -alpha);
+			}
+			if (depth == 0) {
+				return weight(board, symbol, weights) - weight(board, other, weights) +
+						MOBILITY * (moves.size() - board.getLegalMoves(other).size());
+			}
+			for (Cell move : moves) {
+				Board next = board.copy();
+				next.play(symbol, move.getX(), move.getY());
+				int score = -negamax(next, other, weights, depth - 1, -beta, -alpha);
+				if (score > alpha) {
+					alpha = score;
+					if (alpha >= beta) {
+						break;
+					}
+				}
+			}
+			return alpha;
+		}
+
+		private List<Cell> ordered(Iterable<Cell> cells, int size, int[] weights) {
+			List<Cell> moves = new ArrayList<>();
+			cells.forEach(moves::add);
+			moves.sort(Comparator.comparingInt(c -> -weights[c.getY() * size + c.getX()]));
+			return moves;
+		}
+
+		private int weight(Board board, String symbol, int[] weights) {
+			int weight = 0;
+			for (int y = 0; y < board.getSize(); y++) {
+				for (int x = 0; x < board.getSize(); x++) {
+					if (symbol.equals(board.getState(x, y))) {
+						weight += weights[y * board.getSize() + x];
+					}
+				}
+			}
+			return weight;
+		}
+	}
+}
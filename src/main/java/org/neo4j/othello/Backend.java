@@ -0,0 +1,49 @@
+package org.neo4j.othello;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Runs the queries of one game against a database. The handler passed with a
+ * query is called inside the transaction, so if it throws, the transaction is
+ * rolled back. Handlers may be called more than once if the backend retries the
+ * transaction, so they should not have side effects.
+ */
+public interface Backend extends AutoCloseable {
+	String getDatabaseName();
+
+	default <T> T read(String cypher, Map<String, Object> parameters, Function<QueryResult, T> handler) {
+		return read(cypher, parameters, null, handler);
+	}
+
+	/**
+	 * Read with a timeout. The transaction is stopped by the database when it has run
+	 * for longer than the timeout, and if the database doesn't do so in time, it is
+	 * terminated by the backend.
+	 *
+	 * @param timeout The timeout, or null for none
+	 * @throws QueryTimeoutException if the transaction was stopped
+	 */
+	<T> T read(String cypher, Map<String, Object> parameters, Duration timeout, Function<QueryResult, T> handler);
+
+	/**
+	 * @param allowance The time the network may add to a query with a timeout before
+	 *                  the backend terminates it, or null for none
+	 */
+	default void setNetworkAllowance(Duration allowance) {
+	}
+
+	<T> T write(String cypher, Map<String, Object> parameters, Function<QueryResult, T> handler);
+
+	/**
+	 * Run two queries in one transaction that is always rolled back, so that nothing
+	 * the first one writes is ever seen by others. The handler gets the result of the
+	 * second query. The setup query may be null. The timeout works as for a read.
+	 */
+	<T> T discard(String setup, Map<String, Object> setupParameters, String cypher, Map<String, Object> parameters,
+			Duration timeout, Function<QueryResult, T> handler);
+
+	@Override
+	void close();
+}
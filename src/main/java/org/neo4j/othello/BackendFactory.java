@@ -0,0 +1,42 @@
+package org.neo4j.othello;
+
+/**
+ * Opens backends for databases of one Neo4j instance, sharing whatever can be
+ * shared between them (the driver, or the embedded database management system).
+ */
+public interface BackendFactory extends AutoCloseable {
+	String EMBEDDED_PREFIX = "embedded:";
+
+	Backend open(String db);
+
+	/**
+	 * @return The overhead of the connections to the database, or null if there is no
+	 *         network in between
+	 */
+	default ConnectionMetrics getMetrics() {
+		return null;
+	}
+
+	@Override
+	void close();
+
+	/**
+	 * A factory for the instance at the URI. A URI of the form embedded:&lt;directory&gt;
+	 * starts an in-process Neo4j with its files in that directory, which requires the
+	 * application to be built with the embedded profile. Anything else is a driver URI.
+	 */
+	static BackendFactory create(String uri, String user, String pwd) {
+		if (uri.startsWith(EMBEDDED_PREFIX)) {
+			try {
+				return (BackendFactory)Class.forName(BackendFactory.class.getPackageName() + ".EmbeddedBackendFactory")
+						.getConstructor(String.class)
+						.newInstance(uri.substring(EMBEDDED_PREFIX.length()));
+			} catch (ClassNotFoundException e) {
+				throw new IllegalStateException("Embedded Neo4j is not available, build with -Pembedded", e);
+			} catch (ReflectiveOperationException e) {
+				throw new IllegalStateException("Failed to start embedded Neo4j in " + uri, e);
+			}
+		}
+		return new DriverBackendFactory(uri, user, pwd);
+	}
+}
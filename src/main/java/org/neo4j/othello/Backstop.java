@@ -0,0 +1,27 @@
+package org.neo4j.othello;
+
+import java.time.Duration;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Terminates a transaction that is still running a moment after its timeout, for the
+ * backends, since the database only checks the timeout now and then.
+ */
+final class Backstop {
+	private static final Duration TERMINATE_AFTER = Duration.ofMillis(250);
+	private static final ScheduledExecutorService TERMINATOR = Executors.newSingleThreadScheduledExecutor(
+			Thread.ofPlatform().name("transaction-terminator").daemon().factory());
+
+	private Backstop() {
+	}
+
+	/**
+	 * @return The scheduled termination, to cancel when the transaction is done
+	 */
+	static ScheduledFuture<?> schedule(Duration timeout, Runnable terminate) {
+		return TERMINATOR.schedule(terminate, timeout.plus(TERMINATE_AFTER).toNanos(), TimeUnit.NANOSECONDS);
+	}
+}
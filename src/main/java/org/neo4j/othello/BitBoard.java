@@ -0,0 +1,224 @@
+package org.neo4j.othello;
+
+import java.util.Collection;
+import java.util.TreeSet;
+
+/**
+ * The standard 8x8 playing field kept as two bitboards, one for the black bricks
+ * ("X") and one for the white bricks ("O"). Bit number y*8+x represents the cell
+ * at column x and row y.
+ */
+public class BitBoard extends Board {
+	public static final int SIZE = DEFAULT_SIZE;
+
+	private static final long NOT_FIRST_COLUMN = 0xfefefefefefefefeL;
+	private static final long NOT_LAST_COLUMN = 0x7f7f7f7f7f7f7f7fL;
+	private static final int DIRECTIONS = 8;
+
+	private long black;
+	private long white;
+
+	public BitBoard() {
+		reset();
+	}
+
+	public BitBoard(long black, long white) {
+		this.black = black;
+		this.white = white;
+	}
+
+	@Override
+	public int getSize() {
+		return SIZE;
+	}
+
+	@Override
+	public void reset() {
+		black = bit(3, 3) | bit(4, 4);
+		white = bit(4, 3) | bit(3, 4);
+	}
+
+	@Override
+	protected void clear() {
+		black = 0;
+		white = 0;
+	}
+
+	@Override
+	protected void set(int x, int y, String state) {
+		long b = bit(x, y);
+		black &= ~b;
+		white &= ~b;
+		if (isBlack(state)) {
+			black |= b;
+		} else if (state != null) {
+			white |= b;
+		}
+	}
+
+	@Override
+	public BitBoard copy() {
+		return new BitBoard(black, white);
+	}
+
+	public long getBlack() {
+		return black;
+	}
+
+	public long getWhite() {
+		return white;
+	}
+
+	public long getDiscs(String symbol) {
+		return isBlack(symbol) ? black : white;
+	}
+
+	public long getEmpty() {
+		return ~(black | white);
+	}
+
+	@Override
+	public String getState(int x, int y) {
+		long b = bit(x, y);
+		if ((black & b) != 0) {
+			return "X";
+		}
+		if ((white & b) != 0) {
+			return "O";
+		}
+		return null;
+	}
+
+	public long legalMoves(String symbol) {
+		return legalMoves(getDiscs(symbol), getDiscs(other(symbol)));
+	}
+
+	/**
+	 * The legal moves of the player with the bricks own, against the bricks of the opponent.
+	 */
+	static long legalMoves(long own, long opponent) {
+		long empty = ~(own | opponent);
+		long moves = 0;
+		for (int dir = 0; dir < DIRECTIONS; dir++) {
+			long candidates = shift(own, dir) & opponent;
+			for (int i = 0; i < SIZE - 3; i++) {
+				candidates |= shift(candidates, dir) & opponent;
+			}
+			moves |= shift(candidates, dir) & empty;
+		}
+		return moves;
+	}
+
+	@Override
+	public boolean hasLegalMove(String symbol) {
+		return legalMoves(symbol) != 0;
+	}
+
+	@Override
+	public boolean isLegal(String symbol, int x, int y) {
+		return inside(x, y) && (legalMoves(symbol) & bit(x, y)) != 0;
+	}
+
+	/**
+	 * The bricks that would be turned if symbol put a brick at x/y, or 0 if
+	 * that is not a legal move.
+	 */
+	public long flips(String symbol, int x, int y) {
+		if (!inside(x, y) || (getEmpty() & bit(x, y)) == 0) {
+			return 0;
+		}
+		return flips(getDiscs(symbol), getDiscs(other(symbol)), bit(x, y));
+	}
+
+	/**
+	 * The bricks of the opponent that would be turned by a brick at the empty cell move.
+	 */
+	static long flips(long own, long opponent, long move) {
+		long flips = 0;
+		for (int dir = 0; dir < DIRECTIONS; dir++) {
+			long line = 0;
+			long next = shift(move, dir);
+			while ((next & opponent) != 0) {
+				line |= next;
+				next = shift(next, dir);
+			}
+			if ((next & own) != 0) {
+				flips |= line;
+			}
+		}
+		return flips;
+	}
+
+	@Override
+	public Collection<Cell> getLegalMoves(String symbol) {
+		return toCells(legalMoves(symbol), null);
+	}
+
+	@Override
+	public Collection<Cell> getFlips(String symbol, int x, int y) {
+		return toCells(flips(symbol, x, y), null);
+	}
+
+	@Override
+	public int play(String symbol, int x, int y) {
+		long flips = flips(symbol, x, y);
+		if (flips == 0) {
+			throw new IllegalArgumentException("Illegal move for " + symbol + " at " + x + "," + y);
+		}
+		apply(symbol, bit(x, y), flips);
+		return Long.bitCount(flips);
+	}
+
+	public void apply(String symbol, long move, long flips) {
+		if (isBlack(symbol)) {
+			black |= move | flips;
+			white &= ~flips;
+		} else {
+			white |= move | flips;
+			black &= ~flips;
+		}
+	}
+
+	@Override
+	public int count(String symbol) {
+		return Long.bitCount(getDiscs(symbol));
+	}
+
+	public static Collection<Cell> toCells(long mask, String state) {
+		TreeSet<Cell> cells = new TreeSet<>();
+		for (long m = mask; m != 0; m &= m - 1) {
+			int index = Long.numberOfTrailingZeros(m);
+			cells.add(new Cell(index / SIZE, index % SIZE, state));
+		}
+		return cells;
+	}
+
+	public static long bit(int x, int y) {
+		return 1L << (y * SIZE + x);
+	}
+
+	private static boolean isBlack(String symbol) {
+		return "X".equals(symbol);
+	}
+
+	private static long shift(long b, int dir) {
+		switch (dir) {
+		case 0: return (b << 1) & NOT_FIRST_COLUMN; // East
+		case 1: return (b >>> 1) & NOT_LAST_COLUMN; // West
+		case 2: return b << SIZE; // South
+		case 3: return b >>> SIZE; // North
+		case 4: return (b << (SIZE + 1)) & NOT_FIRST_COLUMN; // South east
+		case 5: return (b << (SIZE - 1)) & NOT_LAST_COLUMN; // South west
+		case 6: return (b >>> (SIZE - 1)) & NOT_FIRST_COLUMN; // North east
+		default: return (b >>> (SIZE + 1)) & NOT_LAST_COLUMN; // North west
+		}
+	}
+
+	@Override
+	public boolean equals(Object o) {
+		if (o instanceof BitBoard other) {
+			return other.black == black && other.white == white;
+		}
+		return super.equals(o);
+	}
+}
@@ -0,0 +1,168 @@
+package org.neo4j.othello;
+
+import java.util.Collection;
+import java.util.Objects;
+import java.util.TreeSet;
+
+/**
+ * Local copy of the playing field, a square with an even number of cells on each
+ * side, with "X" for the black bricks and "O" for the white bricks. The standard
+ * 8x8 board is a {@link BitBoard}, other sizes a {@link GridBoard}.
+ *
+ * This is what the referee uses to decide if a move is legal, which bricks it
+ * turns, if a player has to pass and who won, so that none of that has to be
+ * asked of the database.
+ */
+public abstract class Board {
+	public static final int DEFAULT_SIZE = 8;
+	public static final int MIN_SIZE = 6;
+	public static final int MAX_SIZE = 16;
+
+	/**
+	 * A board of the given size with the opening position.
+	 *
+	 * @throws IllegalArgumentException if the size is odd or out of range
+	 */
+	public static Board create(int size) {
+		checkSize(size);
+		return size == BitBoard.SIZE ? new BitBoard() : new GridBoard(size);
+	}
+
+	/**
+	 * @throws IllegalArgumentException if the size is odd or out of range
+	 */
+	public static void checkSize(int size) {
+		if (size % 2 != 0 || size < MIN_SIZE || size > MAX_SIZE) {
+			throw new IllegalArgumentException("Board size must be even and between " + MIN_SIZE + " and " +
+					MAX_SIZE + ", but was: " + size);
+		}
+	}
+
+	public static Board of(int size, Collection<Cell> cells) {
+		Board board = create(size);
+		board.clear();
+		for (Cell cell : cells) {
+			if (cell.getState() != null) {
+				board.set(cell.getX(), cell.getY(), cell.getState());
+			}
+		}
+		return board;
+	}
+
+	public abstract int getSize();
+
+	/**
+	 * Set up the opening position, with the four bricks at the center.
+	 */
+	public void reset() {
+		clear();
+		int center = getSize() / 2;
+		set(center - 1, center - 1, "X");
+		set(center, center, "X");
+		set(center, center - 1, "O");
+		set(center - 1, center, "O");
+	}
+
+	protected abstract void clear();
+
+	protected abstract void set(int x, int y, String state);
+
+	public abstract Board copy();
+
+	public abstract String getState(int x, int y);
+
+	public abstract boolean hasLegalMove(String symbol);
+
+	public abstract boolean isLegal(String symbol, int x, int y);
+
+	public abstract Collection<Cell> getLegalMoves(String symbol);
+
+	/**
+	 * The bricks that would be turned if symbol put a brick at x/y, empty if that
+	 * is not a legal move.
+	 */
+	public abstract Collection<Cell> getFlips(String symbol, int x, int y);
+
+	/**
+	 * Put a brick for symbol at x/y and turn the captured bricks.
+	 *
+	 * @return The number of bricks that were turned
+	 * @throws IllegalArgumentException if the move is not legal
+	 */
+	public abstract int play(String symbol, int x, int y);
+
+	public abstract int count(String symbol);
+
+	public boolean isGameOver() {
+		return !hasLegalMove("X") && !hasLegalMove("O");
+	}
+
+	/**
+	 * @return "X" or "O" for the symbol with most bricks, or null for a draw
+	 */
+	public String getWinner() {
+		int diff = count("X") - count("O");
+		if (diff == 0) {
+			return null;
+		}
+		return diff > 0 ? "X" : "O";
+	}
+
+	public Collection<Cell> getCells() {
+		TreeSet<Cell> cells = new TreeSet<>();
+		for (int y = 0; y < getSize(); y++) {
+			for (int x = 0; x < getSize(); x++) {
+				cells.add(new Cell(y, x, getState(x, y)));
+			}
+		}
+		return cells;
+	}
+
+	public boolean inside(int x, int y) {
+		return x >= 0 && x < getSize() && y >= 0 && y < getSize();
+	}
+
+	public static String other(String symbol) {
+		return "X".equals(symbol) ? "O" : "X";
+	}
+
+	@Override
+	public boolean equals(Object o) {
+		if (!(o instanceof Board other) || other.getSize() != getSize()) {
+			return false;
+		}
+		for (int y = 0; y < getSize(); y++) {
+			for (int x = 0; x < getSize(); x++) {
+				if (!Objects.equals(getState(x, y), other.getState(x, y))) {
+					return false;
+				}
+			}
+		}
+		return true;
+	}
+
+	@Override
+	public int hashCode() {
+		int hash = getSize();
+		for (int y = 0; y < getSize(); y++) {
+			for (int x = 0; x < getSize(); x++) {
+				String state = getState(x, y);
+				hash = hash * 3 + (state == null ? 0 : "X".equals(state) ? 1 : 2);
+			}
+		}
+		return hash;
+	}
+
+	@Override
+	public String toString() {
+		StringBuilder sb = new StringBuilder();
+		for (int y = 0; y < getSize(); y++) {
+			for (int x = 0; x < getSize(); x++) {
+				String state = getState(x, y);
+				sb.append(state == null ? "." : state);
+			}
+			sb.append('\n');
+		}
+		return sb.toString();
+	}
+}
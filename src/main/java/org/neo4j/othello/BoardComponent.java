@@ -0,0 +1,220 @@
+package org.neo4j.othello;
+
+import java.awt.Color;
+import java.awt.Dimension;
+import java.awt.Graphics;
+import java.awt.Graphics2D;
+import java.awt.Rectangle;
+import java.awt.RenderingHints;
+import java.awt.event.MouseAdapter;
+import java.awt.event.MouseEvent;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.function.BiConsumer;
+
+import javax.swing.JComponent;
+import javax.swing.SwingUtilities;
+import javax.swing.Timer;
+
+/**
+ * The playing field, painted as one component. Cells can be changed from any
+ * thread: the changes are collected and handed to the event thread, where all
+ * changes made since the last time are shown at once and only the cells that
+ * changed are repainted. A brick that is turned can be animated, which is done
+ * on the event thread only, so it never holds up the game.
+ */
+public class BoardComponent extends JComponent {
+	private static final long serialVersionUID = 1L;
+
+	private static final Color BOARD = new Color(0, 144, 103);
+	private static final Color GRID = Color.black;
+	private static final Color BLACK = Color.black;
+	private static final Color WHITE = Color.white;
+	private static final Color INVALID = Color.red;
+	private static final int CELL_SIZE = 40;
+	private static final int MARGIN = 3;
+	private static final int FLIP_MS = 250;
+	private static final int FRAME_MS = 15;
+
+	private final int width;
+	private final int height;
+
+	// Changes not shown yet, guarded by pendingLock
+	private final Object pendingLock = new Object();
+	private final String[] pending;
+	private final BitSet changed = new BitSet();
+	private int pendingInvalid = -1;
+	private boolean flushScheduled = false;
+
+	// What is shown, only used on the event thread
+	private final String[] shown;
+	private final long[] flipStart;
+	private final Timer animation = new Timer(FRAME_MS, event -> animate());
+	private int invalid = -1;
+	private boolean animated = false;
+
+	public BoardComponent(int width, int height) {
+		this.width = width;
+		this.height = height;
+		this.pending = new String[width * height];
+		this.shown = new String[width * height];
+		this.flipStart = new long[width * height];
+		setPreferredSize(new Dimension(width * CELL_SIZE, height * CELL_SIZE));
+		setOpaque(true);
+	}
+
+	/**
+	 * @param animated true to show the turning of bricks
+	 */
+	public void setAnimated(boolean animated) {
+		this.animated = animated;
+	}
+
+	/**
+	 * Let the empty cells be clicked.
+	 *
+	 * @param selection Called on the event thread with x and y of the empty cell clicked
+	 */
+	public void setSelectionListener(BiConsumer<Integer, Integer> selection) {
+		addMouseListener(new MouseAdapter() {
+			@Override
+			public void mouseClicked(MouseEvent e) {
+				int x = e.getX() * width / Math.max(1, getWidth());
+				int y = e.getY() * height / Math.max(1, getHeight());
+				if (x < width && y < height && shown[y * width + x] == null) {
+					selection.accept(x, y);
+				}
+			}
+		});
+	}
+
+	/**
+	 * Change cells, from any thread. All cells given in one call are shown together.
+	 */
+	public void setCells(Collection<Cell> cells) {
+		synchronized (pendingLock) {
+			for (Cell cell : cells) {
+				int i = cell.getRow() * width + cell.getColumn();
+				pending[i] = cell.getState();
+				changed.set(i);
+			}
+			scheduleFlush();
+		}
+	}
+
+	/**
+	 * Mark a cell as the one of an illegal move, from any thread.
+	 */
+	public void setInvalid(Cell cell) {
+		synchronized (pendingLock) {
+			pendingInvalid = cell.getRow() * width + cell.getColumn();
+			scheduleFlush();
+		}
+	}
+
+	private void scheduleFlush() {
+		if (!flushScheduled) {
+			flushScheduled = true;
+			SwingUtilities.invokeLater(this::flush);
+		}
+	}
+
+	/**
+	 * Show the changes made since the last flush, on the event thread.
+	 */
+	private void flush() {
+		long now = System.nanoTime();
+		synchronized (pendingLock) {
+			flushScheduled = false;
+			for (int i = changed.nextSetBit(0); i >= 0; i = changed.nextSetBit(i + 1)) {
+				if (pending[i] == null ? shown[i] == null : pending[i].equals(shown[i])) {
+					continue;
+				}
+				if (animated && shown[i] != null && pending[i] != null) {
+					flipStart[i] = now;
+					animation.start();
+				}
+				shown[i] = pending[i];
+				repaintCell(i);
+			}
+			changed.clear();
+			if (pendingInvalid >= 0) {
+				invalid = pendingInvalid;
+				pendingInvalid = -1;
+				repaintCell(invalid);
+			}
+		}
+	}
+
+	private void animate() {
+		long now = System.nanoTime();
+		boolean running = false;
+		for (int i = 0; i < flipStart.length; i++) {
+			if (flipStart[i] != 0) {
+				if (now - flipStart[i] >= FLIP_MS * 1_000_000L) {
+					flipStart[i] = 0;
+				} else {
+					running = true;
+				}
+				repaintCell(i);
+			}
+		}
+		if (!running) {
+			animation.stop();
+		}
+	}
+
+	private void repaintCell(int i) {
+		repaint(cellBounds(i % width, i / width));
+	}
+
+	private Rectangle cellBounds(int x, int y) {
+		int left = x * getWidth() / width;
+		int top = y * getHeight() / height;
+		return new Rectangle(left, top, (x + 1) * getWidth() / width - left, (y + 1) * getHeight() / height - top);
+	}
+
+	@Override
+	protected void paintComponent(Graphics g) {
+		Graphics2D g2 = (Graphics2D)g;
+		g2.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+		Rectangle clip = g.getClipBounds();
+		long now = System.nanoTime();
+		for (int y = 0; y < height; y++) {
+			for (int x = 0; x < width; x++) {
+				Rectangle bounds = cellBounds(x, y);
+				if (clip == null || clip.intersects(bounds)) {
+					paintCell(g2, y * width + x, bounds, now);
+				}
+			}
+		}
+	}
+
+	private void paintCell(Graphics2D g, int i, Rectangle bounds, long now) {
+		g.setColor(BOARD);
+		g.fillRect(bounds.x, bounds.y, bounds.width, bounds.height);
+		g.setColor(GRID);
+		g.drawRect(bounds.x, bounds.y, bounds.width, bounds.height);
+
+		String state = shown[i];
+		if (i == invalid) {
+			g.setColor(INVALID);
+		} else if (state == null) {
+			return;
+		} else {
+			g.setColor("X".equals(state) ? BLACK : WHITE);
+		}
+
+		int discWidth = bounds.width - 2 * MARGIN;
+		if (flipStart[i] != 0 && i != invalid) {
+			// The brick narrows showing the old color, then widens showing the new one
+			double t = Math.min(1.0, (now - flipStart[i]) / (FLIP_MS * 1_000_000.0));
+			if (t < 0.5) {
+				g.setColor("X".equals(state) ? WHITE : BLACK);
+			}
+			discWidth = (int)(discWidth * Math.abs(1 - 2 * t));
+		}
+		g.fillOval(bounds.x + (bounds.width - discWidth) / 2, bounds.y + MARGIN, discWidth,
+				bounds.height - 2 * MARGIN);
+	}
+}
@@ -55,6 +55,9 @@ public class Cell implements Comparable<Cell> {
 	}
 
 	public Map<String, Object> asMap() {
+		if (getState() == null) {
+			return Map.of(KEY_ROW, getRow(), KEY_COLUMN, getColumn()); // Map.of doesn't allow null values
+		}
 		return Map.of(KEY_ROW, getRow(), KEY_COLUMN, getColumn(), KEY_STATE, getState());
 	}
 
@@ -0,0 +1,92 @@
+package org.neo4j.othello;
+
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Chess clock of one player: a time bank for the whole game that the time of every
+ * player query is taken from, and an optional increment that is added after every
+ * move made in time. A player that runs out of time loses.
+ */
+public class Clock {
+	private final long bankNs;
+	private final long incrementNs;
+	private long remainingNs;
+
+	public Clock(long bankNs, long incrementNs) {
+		this.bankNs = bankNs;
+		this.incrementNs = incrementNs;
+		this.remainingNs = bankNs;
+	}
+
+	/**
+	 * Parse a time control given as seconds in the bank with an optional increment
+	 * in seconds, e.g. "300" or "300+2".
+	 *
+	 * @throws NumberFormatException if the format is not right
+	 */
+	public static Clock parse(String timeControl) {
+		String[] parts = timeControl.trim().split("\\+", 2);
+		double bankS = Double.parseDouble(parts[0]);
+		double incrementS = parts.length > 1 ? Double.parseDouble(parts[1]) : 0;
+		if (bankS <= 0 || incrementS < 0) {
+			throw new NumberFormatException("Time bank must be positive and increment not negative: " + timeControl);
+		}
+		return new Clock(toNanos(bankS), toNanos(incrementS));
+	}
+
+	private static long toNanos(double seconds) {
+		return (long)(seconds * TimeUnit.SECONDS.toNanos(1));
+	}
+
+	/**
+	 * A new clock with the same time control, for the next game.
+	 */
+	public Clock copy() {
+		return new Clock(bankNs, incrementNs);
+	}
+
+	public long getBankNs() {
+		return bankNs;
+	}
+
+	public long getIncrementNs() {
+		return incrementNs;
+	}
+
+	/**
+	 * @return The time left, 0 or less if the player ran out of time
+	 */
+	public long getRemainingNs() {
+		return remainingNs;
+	}
+
+	/**
+	 * @return true if there is no time left, as after a query that was stopped at the
+	 *         timeout given by the clock
+	 */
+	public boolean isFlagged() {
+		return remainingNs <= 0;
+	}
+
+	/**
+	 * Take the time of a move from the bank, and add the increment if there was time
+	 * enough for it.
+	 *
+	 * @return false if the player ran out of time
+	 */
+	public boolean charge(long ns) {
+		remainingNs -= ns;
+		if (isFlagged()) {
+			return false;
+		}
+		remainingNs += incrementNs;
+		return true;
+	}
+
+	@Override
+	public String toString() {
+		long tenths = Math.max(0, remainingNs) / TimeUnit.MILLISECONDS.toNanos(100);
+		return String.format(Locale.ROOT, "%d:%02d.%d", tenths / 600, tenths / 10 % 60, tenths % 10);
+	}
+}
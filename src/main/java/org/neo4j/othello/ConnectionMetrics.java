@@ -0,0 +1,55 @@
+package org.neo4j.othello;
+
+import java.io.PrintStream;
+import java.util.Locale;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * What the driver spends around the queries of all backends of one driver: getting
+ * a connection from the pool and beginning the transaction, committing it, and
+ * transactions that had to be retried. This is the overhead of the network and the
+ * pool, as opposed to the cost of the queries themselves.
+ */
+public class ConnectionMetrics {
+	private final LatencyHistogram begin = new LatencyHistogram();
+	private final LatencyHistogram commit = new LatencyHistogram();
+	private final LongAdder retries = new LongAdder();
+
+	public void recordBegin(long ns) {
+		begin.record(ns);
+	}
+
+	public void recordCommit(long ns) {
+		commit.record(ns);
+	}
+
+	public void recordRetry() {
+		retries.increment();
+	}
+
+	public LatencyHistogram getBegin() {
+		return begin;
+	}
+
+	public LatencyHistogram getCommit() {
+		return commit;
+	}
+
+	public long getRetries() {
+		return retries.sum();
+	}
+
+	public void print(PrintStream out) {
+		out.println(String.format(Locale.ROOT, "%-40s %6s %10s %10s %10s %10s", "Connection", "Count", "Mean ms",
+				"p50 ms", "p99 ms", "Max ms"));
+		print(out, "Acquire and begin transaction", begin);
+		print(out, "Commit transaction", commit);
+		out.println("Retried transactions: " + getRetries());
+	}
+
+	private static void print(PrintStream out, String name, LatencyHistogram h) {
+		out.println(String.format(Locale.ROOT, "%-40s %6d %10.3f %10.3f %10.3f %10.3f", name, h.getCount(),
+				h.getMeanNs() / 1_000_000.0, h.getPercentileNs(50) / 1_000_000.0, h.getPercentileNs(99) / 1_000_000.0,
+				h.getMaxNs() / 1_000_000.0));
+	}
+}
@@ -1,59 +1,340 @@
 package org.neo4j.othello;
 
+import java.time.Duration;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
 import java.util.Map;
+import java.util.Random;
 import java.util.TreeSet;
+import java.util.function.Function;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 
-import org.neo4j.driver.AuthTokens;
-import org.neo4j.driver.Config;
-import org.neo4j.driver.Driver;
-import org.neo4j.driver.GraphDatabase;
-import org.neo4j.driver.Query;
-import org.neo4j.driver.SessionConfig;
+import org.neo4j.driver.Value;
 
 public class DBConnection implements AutoCloseable {
-	private final Driver driver;
-	private final String db;
+	// String literals, quoted names and comments are matched too, to leave them as they are
+	private static final Pattern CELL_LABEL = Pattern.compile(
+			"'(?:[^'\\\\]|\\\\.)*'|\"(?:[^\"\\\\]|\\\\.)*\"|`[^`]*`|//[^\\n]*|/\\*.*?\\*/|(:\\s*Cell\\b)",
+			Pattern.DOTALL);
+	private static final Pattern COLON_BEFORE = Pattern.compile(":\\s*(?:\\w+|`[^`]*`)\\s*$");
+	private static final Pattern COLON_AFTER = Pattern.compile("^\\s*:");
+	private static final long WARM_UP_SEED = 0x07e110;
+	// The scratch positions stop this many plies before the board is full, so that there are moves left to make
+	private static final int WARM_UP_MARGIN = 20;
+	private static final Pattern GAME_ID = Pattern.compile("[A-Za-z0-9_]+");
+	private static final String LOAD_POSITION =
+			"""
+			UNWIND $cells AS cell
+			MATCH (c:Cell)
+			WHERE elementId(c) = cell.id
+			SET c.state = cell.state
+			""";
+	private static final String STATE =
+			"""
+			MATCH (cell:Cell)
+			RETURN cell
+			""";
+	private static final String LEGAL_MOVES =
+			"""
+			MATCH (c:Cell) WHERE c.state IS NULL
+			MATCH p=(c)-[r]-(:Cell {state: $other})
+			  ((:Cell {state: $other})-[{direction: r.direction}]-(:Cell {state: $other})){0,}
+			  (:Cell {state: $other})-[{direction: r.direction}]-(:Cell {state: $symbol})
+			UNWIND nodes(p)[1..-1] AS flip
+			WITH c, collect(DISTINCT flip) AS flipped
+			RETURN c AS cell, flipped
+			""";
+
+	private final BackendFactory factory;
+	private final boolean ownsFactory;
+	private final Backend backend;
 	private final String apiKey;
+	private final String game;
+	private Board board = Board.create(Board.DEFAULT_SIZE);
+	private String[] cellIds; // The element ids of the cells, by y * size + x, read at setup
+	private boolean indexed = false;
+	private boolean profile = false;
+	private MoveCache moveCache;
+	private long networkAllowanceNs = -1;
+	private long queryTimeNs = -1;
 
 	public DBConnection(String uri, String user, String pwd, String db, String apiKey) {
-		driver = GraphDatabase.driver(uri, AuthTokens.basic(user, pwd), Config.defaultConfig());
-		
-		this.db = db;
+		this(uri, user, pwd, db, apiKey, null);
+	}
+
+	/**
+	 * @param game If not null, the cells of this game are tagged with this id so that
+	 *             other games can be played in the same database at the same time
+	 */
+	public DBConnection(String uri, String user, String pwd, String db, String apiKey, String game) {
+		this(BackendFactory.create(uri, user, pwd), true, db, apiKey, game);
+	}
+
+	/**
+	 * A connection that shares the backend factory (and with that the driver or the
+	 * embedded database) with other connections. The factory is not closed when this
+	 * connection is closed.
+	 */
+	public DBConnection(BackendFactory factory, String db, String apiKey, String game) {
+		this(factory, false, db, apiKey, game);
+	}
+
+	private DBConnection(BackendFactory factory, boolean ownsFactory, String db, String apiKey, String game) {
+		if (game != null && !GAME_ID.matcher(game).matches()) {
+			throw new IllegalArgumentException("Game id can only contain letters, digits and _, but was: " + game);
+		}
+
+		this.factory = factory;
+		this.ownsFactory = ownsFactory;
+		this.backend = factory.open(db);
 		this.apiKey = apiKey;
+		this.game = game;
 	}
 
 	@Override
 	public void close() throws Exception {
-		driver.close();
+		backend.close();
+		if (ownsFactory) {
+			factory.close();
+		}
+	}
+
+	public String getDatabaseName() {
+		return backend.getDatabaseName();
+	}
+
+	/**
+	 * @return The overhead of the connections, shared with all connections of the same
+	 *         factory, or null for an embedded database
+	 */
+	public ConnectionMetrics getConnectionMetrics() {
+		return factory.getMetrics();
+	}
+
+	/**
+	 * @return The id of the game in a shared database, or null if the game has the database to itself
+	 */
+	public String getGame() {
+		return game;
+	}
+
+	/**
+	 * @param profile true to run the player queries with PROFILE and keep the profile of every move
+	 */
+	public void setProfile(boolean profile) {
+		this.profile = profile;
+	}
+
+	/**
+	 * @param size The number of cells on each side of the board, even and from 6 to 16.
+	 *             Takes effect at the next {@link #setupGrid()}.
+	 * @throws IllegalArgumentException if the size is not allowed
+	 */
+	public void setSize(int size) {
+		if (size != board.getSize()) {
+			board = Board.create(size);
+		}
+	}
+
+	public int getSize() {
+		return board.getSize();
+	}
+
+	/**
+	 * @param moveCache A cache for the moves of deterministic players, which may be shared
+	 *                  with other connections, or null to always run the player queries
+	 */
+	public void setMoveCache(MoveCache moveCache) {
+		this.moveCache = moveCache;
+	}
+
+	/**
+	 * The player queries are timed by the database, so that the time it takes to reach
+	 * it doesn't count. To not wait for ever on a slow network, a move can still be
+	 * lost on the time measured here, if it exceeds the time the player had by more
+	 * than the allowance. The backend also waits that long on top of the timeout before
+	 * it terminates a query the database hasn't stopped.
+	 *
+	 * @param allowance The time the network may add to a move, or null to not limit it
+	 */
+	public void setNetworkAllowance(Duration allowance) {
+		this.networkAllowanceNs = allowance == null ? -1 : allowance.toNanos();
+		backend.setNetworkAllowance(allowance);
 	}
 
+	/**
+	 * @return The time the network may add to a move, or -1 for no limit
+	 */
+	public long getNetworkAllowanceNs() {
+		return networkAllowanceNs;
+	}
+
+	/**
+	 * Restrict a query to the cells of this game. Every :Cell label in the query, but
+	 * not in string literals or comments, becomes :Cell&Game_<id>, so that a query
+	 * written for a database with one game only sees the cells of this game. Where the
+	 * labels are joined with colons, like :Cell:Other, which can't be mixed with &, it
+	 * becomes :Cell:Game_<id> instead. Without a game id the query is unchanged.
+	 */
+	public String scope(String cypher) {
+		if (game == null) {
+			return cypher;
+		}
+		return CELL_LABEL.matcher(cypher).replaceAll(match -> {
+			if (match.group(1) == null) {
+				return Matcher.quoteReplacement(match.group());
+			}
+			boolean colons = COLON_BEFORE.matcher(cypher.substring(0, match.start())).find() ||
+					COLON_AFTER.matcher(cypher.substring(match.end())).find();
+			return (colons ? ":Cell:Game_" : ":Cell&Game_") + game;
+		});
+	}
+
+	private Map<String, Object> parameters(Map<String, Object> parameters) {
+		Map<String, Object> all = new HashMap<>(parameters);
+		all.put("game", game);
+		all.put("size", board.getSize());
+		return all;
+	}
+
+	private <T> T read(String cypher, Map<String, Object> parameters, Function<QueryResult, T> handler) {
+		return backend.read(scope(cypher), parameters(parameters), handler);
+	}
+
+	private <T> T write(String cypher, Map<String, Object> parameters, Function<QueryResult, T> handler) {
+		return backend.write(scope(cypher), parameters(parameters), handler);
+	}
+
+	private void write(String cypher) {
+		write(cypher, Map.of(), result -> null);
+	}
+
+	/**
+	 * Delete everything in the database, or only the cells of this game if it has an id.
+	 */
 	public void deleteAll() {
-		var query = new Query(
+		write(game == null ?
 				"""
 				MATCH (n)
 				DETACH DELETE n
+				""" :
+				"""
+				MATCH (n:Cell)
+				DETACH DELETE n
 				""");
+	}
 
-		try (var session = driver.session(SessionConfig.forDatabase(db))) {
-			session.executeWriteWithoutResult(tx -> tx.run(query).consume());
+	/**
+	 * Set up the board for a new game. If the cells are already there and connected as
+	 * they should be, only their state is reset, otherwise everything is rebuilt.
+	 */
+	public void setupGrid() {
+		if (!indexed) {
+			createIndex();
+			indexed = true;
+		}
+		if (!resetGrid()) {
+			createGrid();
+			if (!resetGrid()) {
+				throw new IllegalStateException("The grid was not valid after it was created");
+			}
 		}
+		board.reset();
 	}
 
-	public void setupGrid() {
+	/**
+	 * Create the index on the position of the cells if it doesn't exist, for the setup
+	 * and for the player queries that look cells up by row and column. The index is
+	 * shared by all games in the database, the label of a game is checked on the cells
+	 * found by it.
+	 */
+	private void createIndex() {
+		try {
+			// Not scoped, an index is on a single label
+			backend.write(
+					"""
+					CREATE INDEX cell_position IF NOT EXISTS
+					FOR (c:Cell) ON (c.row, c.column)
+					""",
+					Map.of(),
+					result -> null);
+		} catch (RuntimeException e) {
+			// The user may not be allowed to create indexes, or another game in the same
+			// database created it at the same time. The cells are still found without it.
+		}
+	}
+
+	/**
+	 * Check the structure of the grid and, if it is valid, reset all cells to the
+	 * opening position and read the element ids of the cells, in one write. The grid
+	 * is valid if every relationship of the cells is a neighbor relationship in the
+	 * right direction, each of them once, and without a game id if there is nothing
+	 * but the cells in the database.
+	 *
+	 * @return true if the grid was valid and has been reset
+	 */
+	private boolean resetGrid() {
+		return write(
+				"""
+				OPTIONAL MATCH (c:Cell)
+				WITH collect(c) AS cells,
+				  count(DISTINCT [c.row, c.column]) AS positions,
+				  min(c.row) AS minRow, max(c.row) AS maxRow, min(c.column) AS minColumn, max(c.column) AS maxColumn
+				OPTIONAL MATCH (a:Cell)-[r]-(b)
+				WITH cells, positions, minRow, maxRow, minColumn, maxColumn, count(DISTINCT r) AS relationships,
+				  count(DISTINCT CASE WHEN startNode(r) = a AND type(r) = "NEIGHBOR_OF" AND b:Cell AND (
+				    (r.direction = 1 AND b.row = a.row + 1 AND b.column = a.column + 1) OR
+				    (r.direction = 2 AND b.row = a.row + 1 AND b.column = a.column) OR
+				    (r.direction = 3 AND b.row = a.row + 1 AND b.column = a.column - 1) OR
+				    (r.direction = 4 AND b.row = a.row AND b.column = a.column + 1))
+				    THEN [elementId(a), elementId(b), r.direction] END) AS neighbors
+				WITH cells, size(cells) = $size * $size AND positions = $size * $size AND minRow = 0 AND
+				  maxRow = $size - 1 AND minColumn = 0 AND maxColumn = $size - 1 AND
+				  relationships = $neighbors AND neighbors = $neighbors AND
+				  ($game IS NOT NULL OR NOT EXISTS { MATCH (n) WHERE NOT n:Cell }) AS valid,
+				  $size / 2 - 1 AS low, $size / 2 AS high
+				FOREACH (cell IN CASE WHEN valid THEN cells ELSE [] END |
+				  SET cell.state = CASE
+				    WHEN (cell.row = low AND cell.column = low) OR (cell.row = high AND cell.column = high) THEN "X"
+				    WHEN (cell.row = low AND cell.column = high) OR (cell.row = high AND cell.column = low) THEN "O"
+				    ELSE null
+				  END)
+				RETURN valid, CASE WHEN valid THEN [cell IN cells | [elementId(cell), cell.row, cell.column]] END AS ids
+				""",
+				// n(n-1) horizontal + n(n-1) vertical + 2(n-1)^2 diagonal = 2(n-1)(2n-1)
+				Map.of("neighbors", 2 * (board.getSize() - 1) * (2 * board.getSize() - 1)),
+				result -> {
+					var row = result.single();
+					if (!row.get("valid").asBoolean()) {
+						return false;
+					}
+					String[] ids = new String[board.getSize() * board.getSize()];
+					for (Value cell : row.get("ids").values()) {
+						ids[cell.get(1).asInt() * board.getSize() + cell.get(2).asInt()] = cell.get(0).asString();
+					}
+					cellIds = ids;
+					return true;
+				});
+	}
+
+	private void createGrid() {
 		deleteAll();
 
-		var query = new Query(
+		write(
 				"""
-				UNWIND range(0,7) AS row
+				UNWIND range(0,$size-1) AS row
 				WITH row
-				UNWIND range(0,7) AS column
-				WITH row, column
-				CREATE (cell:Cell {row:row, column:column})
-				CALL(cell, row, column) {
-				  WHEN (row = 3 AND column = 3) OR (row = 4 AND column = 4) THEN
+				UNWIND range(0,$size-1) AS column
+				WITH row, column, $size / 2 - 1 AS low, $size / 2 AS high
+				CREATE (cell:Cell {row:row, column:column, game:$game})
+				CALL(cell, row, column, low, high) {
+				  WHEN (row = low AND column = low) OR (row = high AND column = high) THEN
 				    SET cell.state = "X"
-				  WHEN (row = 3 AND column = 4) OR (row = 4 AND column = 3) THEN
+				  WHEN (row = low AND column = high) OR (row = high AND column = low) THEN
 				    SET cell.state = "O"
 				}
 				WITH row, column, cell
@@ -61,141 +342,259 @@ public class DBConnection implements AutoCloseable {
 				MATCH (other:Cell {row:neighbor[0], column:neighbor[1]})
 				MERGE (other)-[:NEIGHBOR_OF {direction: neighbor[2]}]->(cell)
 				""");
+	}
 
-		try (var session = driver.session(SessionConfig.forDatabase(db))) {
-			session.executeWriteWithoutResult(tx -> tx.run(query).consume());
+	/**
+	 * Set the graph and the board to a position, e.g. one from a game record, with
+	 * one write of all cells. The grid must already be set up, with the size of the position.
+	 */
+	public void loadPosition(Board position) {
+		if (position.getSize() != board.getSize()) {
+			throw new IllegalArgumentException("The position is " + position.getSize() + "x" + position.getSize() +
+					" but the board is " + board.getSize() + "x" + board.getSize());
 		}
+		setStates(position.getCells());
+		board = position.copy();
 	}
 
-	public Collection<Cell> getState() {
-		var query = new Query(
-				"""
-				MATCH (cell:Cell)
-				RETURN cell
-				""");
+	/**
+	 * Set the state of some cells in the graph, in one write. The local board is left
+	 * as it is.
+	 */
+	public void setStates(Collection<Cell> cells) {
+		checkSetUp();
+		write(LOAD_POSITION, Map.of("cells", asStateMaps(cells)), result -> null);
+	}
 
-		try (var session = driver.session(SessionConfig.forDatabase(db))) {
-			var record = session.executeRead(tx -> tx.run(query).list());
-			return new TreeSet<>(record.stream().map(r -> new Cell(r.get("cell"))).toList());
+	private List<Map<String, Object>> asStateMaps(Collection<Cell> position) {
+		List<Map<String, Object>> cells = new ArrayList<>();
+		for (Cell cell : position) {
+			Map<String, Object> map = new HashMap<>();
+			map.put("id", cellId(cell));
+			map.put("state", cell.getState());
+			cells.add(map);
 		}
+		return cells;
 	}
 
-	public boolean isAnyMovePossible(PlayerWrapper player) throws IllegalMoveException {
-		var query = new Query(
-				"""
-				WITH
-				CASE $symbol
-				  WHEN "X" THEN "O"
-				  ELSE "X"
-				END AS other
-				MATCH (c:Cell) WHERE c.state IS NULL
-				AND EXISTS {
-				  p=(c)-[r]-(:Cell {state: other})
-				  ((:Cell {state: other})-[{direction: r.direction}]-(:Cell {state: other})){0,5}
-				  (:Cell {state: other})-[{direction: r.direction}]-(:Cell {state: $symbol})
-				}
-				RETURN COUNT(c) > 0 AS valid
-				""",
-				Map.of("symbol", player.getSymbol()));
+	private String cellId(Cell cell) {
+		return cellIds[cell.getRow() * board.getSize() + cell.getColumn()];
+	}
 
-		try (var session = driver.session(SessionConfig.forDatabase(db))) {
-			var record = session.executeRead(tx -> tx.run(query).single());
-			return record.get("valid").asBoolean();
+	private void checkSetUp() {
+		if (cellIds == null || cellIds.length != board.getSize() * board.getSize()) {
+			throw new IllegalStateException("The grid has not been set up");
+		}
+	}
+
+	/**
+	 * Run the player's query a number of times before the game, so that it is planned
+	 * and the caches are warm when the first real move is timed. Every run is made in
+	 * a transaction that is rolled back, so the graph is left as it is. The first run
+	 * is on the current position, the others on scratch positions. The first one is
+	 * needed since a plan made in a transaction that has written something is not
+	 * reused by the moves. The time of each run is recorded as the warm-up phase.
+	 *
+	 * @param timeout The timeout of the moves, which also applies to each run, or null.
+	 *                The warm-up ends at the first run that is stopped by it.
+	 */
+	public void warmUp(PlayerWrapper player, int runs, Duration timeout) {
+		checkSetUp();
+		// Fixed, so that every player is warmed up on the same positions, however many runs there are
+		Random random = new Random(WARM_UP_SEED);
+		for (int i = 0; i < runs; i++) {
+			Board position = i == 0 ? null : scratchPosition(board.getSize(), player.getSymbol(), random);
+			long before = System.nanoTime();
+			try {
+				backend.discard(
+						position == null ? null : scope(LOAD_POSITION),
+						position == null ? null : parameters(Map.of("cells", asStateMaps(position.getCells()))),
+						scope(playerQuery(player)),
+						parameters(Map.of("symbol", player.getSymbol(), "apiKey", apiKey, "x", 0, "y", 0)),
+						timeout,
+						result -> null);
+			} catch (QueryTimeoutException e) {
+				break;
+			} finally {
+				player.record(Phase.WARMUP, System.nanoTime() - before);
+			}
 		}
 	}
 
-	public String getWinner() throws IllegalMoveException {
-		var query = new Query(
-				"""
-				MATCH (c:Cell)
-				WHERE c.state IS NOT NULL
-				WITH c.state AS state, count(*) AS cnt
-				ORDER BY cnt DESC
-				WITH collect({state: state, cnt: cnt}) AS rows
-				RETURN
-				CASE
-				  WHEN size(rows) = 1 OR rows[0].cnt > rows[1].cnt
-				    THEN rows[0].state
-				  ELSE null
-				END AS result
-				""");
 
-		try (var session = driver.session(SessionConfig.forDatabase(db))) {
-			var record = session.executeRead(tx -> tx.run(query).single());
-			if (record.get("result").isNull() || record.get("result").isEmpty()) {
-				return null; // This indicates a draw
+	/**
+	 * A position reached by random moves from the opening, where symbol can move.
+	 */
+	private static Board scratchPosition(int size, String symbol, Random random) {
+		Board position = Board.create(size);
+		String turn = "X";
+		int empty = size * size - 4; // All cells but the opening bricks
+		for (int plies = random.nextInt(empty - WARM_UP_MARGIN); plies > 0 && !position.isGameOver(); plies--) {
+			List<Cell> moves = new ArrayList<>(position.getLegalMoves(turn));
+			if (!moves.isEmpty()) {
+				Cell move = moves.get(random.nextInt(moves.size()));
+				position.play(turn, move.getX(), move.getY());
 			}
-			return record.get("result").asString();
+			turn = Board.other(turn);
 		}
+		return position.hasLegalMove(symbol) ? position : Board.create(size);
 	}
 
-	public void tickPlayer(PlayerWrapper player, int x, int y) throws IllegalMoveException {
-		Cell move = requestMove(player, x, y);
-		validateMove(player, move);
-		makeMove(player, move);
+	public Board getBoard() {
+		return board;
 	}
 
-	private Cell requestMove(PlayerWrapper player, int x, int y) {
-		var query = new Query(
-				player.getCypherForRound(),
-				Map.of("symbol", player.getSymbol(), "apiKey", apiKey, "x", x, "y", y));
+	public Collection<Cell> getState() {
+		return read(STATE, Map.of(),
+				result -> toState(result.getRows().stream().map(r -> r.get("cell")).toList()));
+	}
+
+	static Collection<Cell> toState(List<Value> cells) {
+		return new TreeSet<>(cells.stream().map(Cell::new).toList());
+	}
+
+	/**
+	 * The legal moves of symbol and the cells each of them would turn, found by a query
+	 * on the graph alone. The local board is not used, so this can be compared with it.
+	 */
+	public List<Move> findLegalMoves(String symbol) {
+		return read(LEGAL_MOVES, Map.of("symbol", symbol, "other", Board.other(symbol)),
+				result -> result.getRows().stream().map(r -> toMove(r.get("cell"), r.get("flipped"))).toList());
+	}
 
-		try (var session = driver.session(SessionConfig.forDatabase(db))) {
-			var record = session.executeRead(tx -> tx.run(query).single());
-			return new Cell(record.get("cell"));
+	public boolean isAnyMovePossible(PlayerWrapper player) throws IllegalMoveException {
+		return board.hasLegalMove(player.getSymbol());
+	}
+
+	public String getWinner() throws IllegalMoveException {
+		return board.getWinner(); // null indicates a draw
+	}
+
+	/**
+	 * Compare the local board with the cells in the graph.
+	 *
+	 * @throws IllegalStateException if they differ
+	 */
+	public void verifyBoard() {
+		Board graph = Board.of(board.getSize(), getState());
+		if (!graph.equals(board)) {
+			throw new IllegalStateException("The graph is out of sync with the board. Expected:\n" + board +
+					"but the graph has:\n" + graph);
 		}
 	}
 
-	private void validateMove(PlayerWrapper player, Cell move) throws IllegalMoveException {
-		var query = new Query(
-				"""
-				MATCH (c:Cell)
-				WHERE c.row = $y AND c.column = $x
-				WITH c,
-				CASE $symbol
-				  WHEN "X" THEN "O"
-				  ELSE "X"
-				END AS other
-				RETURN CASE
-				  WHEN c.state IS NOT NULL THEN false
-				  ELSE 
-				    EXISTS {
-				      p=(c)-[r]-(:Cell {state: other})
-				      ((:Cell {state: other})-[{direction: r.direction}]-(:Cell {state: other})){0,5}
-				      (:Cell {state: other})-[{direction: r.direction}]-(:Cell {state: $symbol})
-				    }
-				END AS valid
-				""",
-				Map.of("symbol", player.getSymbol(), "x", move.getX(), "y", move.getY()));
+	/**
+	 * Run the player's query. This is the only part of a move that is timed. If the
+	 * player is deterministic and has been in this position before, the move is taken
+	 * from the move cache instead, if there is one. A native player chooses its move
+	 * on a copy of the board instead.
+	 *
+	 * @param timeout The query is stopped when it has run for this long, null for no timeout
+	 * @throws QueryTimeoutException if the query was stopped
+	 */
+	public Cell requestMove(PlayerWrapper player, int x, int y, Duration timeout) {
+		queryTimeNs = -1;
+		if (player.getPlayer() instanceof NativePlayer nativePlayer) {
+			return nativePlayer.chooseMove(board.copy(), player.getSymbol(), timeout);
+		}
 
-		try (var session = driver.session(SessionConfig.forDatabase(db))) {
-			var record = session.executeRead(tx -> tx.run(query).single());
-			if (!record.get("valid").asBoolean()) {
-				throw new IllegalMoveException(player, move);
+		boolean cache = moveCache != null && MoveCache.isCached(player, board);
+		if (cache) {
+			Cell cached = moveCache.get(player, board);
+			if (cached != null) {
+				return cached;
 			}
 		}
+
+		var result = backend.read(
+				scope(playerQuery(player)),
+				parameters(Map.of("symbol", player.getSymbol(), "apiKey", apiKey, "x", x, "y", y)),
+				timeout,
+				r -> r);
+		queryTimeNs = result.getServerTimeNs();
+		if (result.hasProfile()) {
+			player.addProfile(new QueryProfile(player.getProfiles().size() + 1, result.getOperators()));
+		}
+		Cell move = new Cell(result.single().get("cell"));
+		if (cache) {
+			moveCache.put(player, board, move);
+		}
+		return move;
+	}
+
+	/**
+	 * @return The time the database reported for the last player query, without the
+	 *         network, or -1 if it reported none or the move was taken from the cache
+	 */
+	public long getQueryTimeNs() {
+		return queryTimeNs;
 	}
 
-	private void makeMove(PlayerWrapper player, Cell move) {
-		var query = new Query(
+	/**
+	 * The query of the player as it is run, the same for the warm-up and the moves so
+	 * that the plan can be reused.
+	 */
+	private String playerQuery(PlayerWrapper player) {
+		String cypher = player.getCypherForRound();
+		if (profile && !cypher.stripLeading().toUpperCase(Locale.ROOT).startsWith("PROFILE")) {
+			cypher = "PROFILE " + cypher;
+		}
+		return cypher;
+	}
+
+	/**
+	 * Validate the move and write it to the graph. The write is one round-trip that
+	 * also checks that the graph agrees with the board about the cells involved, and
+	 * reads them back.
+	 *
+	 * @return The placed cell and the turned cells, as read back from the graph
+	 */
+	public Move makeMove(PlayerWrapper player, Cell move) throws IllegalMoveException {
+		long beforeValidation = System.nanoTime();
+		validateMove(player, move);
+		checkSetUp();
+		long beforeWrite = System.nanoTime();
+		player.record(Phase.VALIDATION, beforeWrite - beforeValidation);
+
+		String symbol = player.getSymbol();
+		Collection<Cell> flips = board.getFlips(symbol, move.getX(), move.getY());
+
+		var record = write(
 				"""
 				MATCH (c:Cell)
-				WHERE c.row = $y AND c.column = $x
-				WITH c,
-				CASE $symbol
-				  WHEN "X" THEN "O"
-				  ELSE "X"
-				END AS other
-				MATCH
-				  p=(c)-[r]-(:Cell {state: other})
-				  ((:Cell {state: other})-[{direction: r.direction}]-(:Cell {state: other})){0,5}
-				  (:Cell {state: other})-[{direction: r.direction}]-(:Cell {state: $symbol})
-				FOREACH (n IN nodes(p) | SET n.state = $symbol)
+				WHERE elementId(c) = $cell AND c.state IS NULL
+				UNWIND $flips AS flip
+				MATCH (f:Cell)
+				WHERE elementId(f) = flip AND f.state = $other
+				WITH c, collect(f) AS flipped
+				WHERE size(flipped) = size($flips)
+				SET c.state = $symbol
+				FOREACH (f IN flipped | SET f.state = $symbol)
+				RETURN c AS cell, flipped
 				""",
-				Map.of("symbol", player.getSymbol(), "x", move.getX(), "y", move.getY()));
+				Map.of("symbol", symbol, "other", Board.other(symbol), "cell", cellId(move), "flips",
+						flips.stream().map(this::cellId).toList()),
+				result -> {
+					if (result.getRows().isEmpty()) {
+						// Throwing rolls the transaction back, so the graph is left untouched
+						throw new IllegalStateException("The graph is out of sync with the board at " +
+								move.getX() + "," + move.getY() + ". Expected:\n" + board);
+					}
+					return result.getRows().get(0);
+				});
+		board.play(symbol, move.getX(), move.getY());
+		Move result = toMove(record.get("cell"), record.get("flipped"));
+		player.record(Phase.WRITE, System.nanoTime() - beforeWrite);
+		return result;
+	}
 
-		try (var session = driver.session(SessionConfig.forDatabase(db))) {
-			session.executeWriteWithoutResult(tx -> tx.run(query).consume());
+	static Move toMove(Value cell, Value flipped) {
+		return new Move(new Cell(cell), flipped.asList(Cell::new));
+	}
+
+	private void validateMove(PlayerWrapper player, Cell move) throws IllegalMoveException {
+		if (!board.isLegal(player.getSymbol(), move.getX(), move.getY())) {
+			throw new IllegalMoveException(player, move);
 		}
 	}
 }
@@ -0,0 +1,17 @@
+package org.neo4j.othello;
+
+/**
+ * Marker for players whose query always chooses the same cell in the same position,
+ * which lets their moves be cached (see {@link MoveCache}). Players that are not
+ * marked are still cached if their query doesn't look like it could choose differently.
+ */
+public interface Deterministic {
+	/**
+	 * @return true if the player also chooses the mirrored or rotated cell in a mirrored
+	 *         or rotated position, so that all eight symmetries of a position can share
+	 *         one cached move
+	 */
+	default boolean isSymmetric() {
+		return false;
+	}
+}
@@ -0,0 +1,222 @@
+package org.neo4j.othello;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+import org.neo4j.driver.Driver;
+import org.neo4j.driver.Query;
+import org.neo4j.driver.Result;
+import org.neo4j.driver.Session;
+import org.neo4j.driver.SessionConfig;
+import org.neo4j.driver.Transaction;
+import org.neo4j.driver.TransactionCallback;
+import org.neo4j.driver.TransactionConfig;
+import org.neo4j.driver.Value;
+import org.neo4j.driver.exceptions.Neo4jException;
+import org.neo4j.driver.summary.ProfiledPlan;
+import org.neo4j.driver.summary.ResultSummary;
+
+/**
+ * Backend that runs the queries through the Neo4j driver against a server.
+ */
+public class DriverBackend implements Backend {
+	private static final String TRANSACTION_ID = "othelloTransactionId";
+
+	private final Driver driver;
+	private final String db;
+	private final ConnectionMetrics metrics;
+	private Session session;
+	private Duration networkAllowance = Duration.ZERO;
+
+	public DriverBackend(Driver driver, String db, ConnectionMetrics metrics) {
+		this.driver = driver;
+		this.db = db;
+		this.metrics = metrics;
+	}
+
+	@Override
+	public String getDatabaseName() {
+		return db;
+	}
+
+	@Override
+	public void setNetworkAllowance(Duration allowance) {
+		this.networkAllowance = allowance == null ? Duration.ZERO : allowance;
+	}
+
+	/**
+	 * One session is used for the whole game, so that the connection doesn't have to
+	 * be acquired again for every query.
+	 */
+	private Session session() {
+		if (session == null || !session.isOpen()) {
+			session = driver.session(SessionConfig.forDatabase(db));
+		}
+		return session;
+	}
+
+	@Override
+	public <T> T read(String cypher, Map<String, Object> parameters, Duration timeout,
+			Function<QueryResult, T> handler) {
+		var query = new Query(cypher, parameters);
+		return withTimeout(timeout, config -> execute(false, query, config, handler));
+	}
+
+	/**
+	 * Run a managed transaction, and record the time it took to get a connection and
+	 * begin the transaction, the time to commit it and any retries.
+	 */
+	private <T> T execute(boolean write, Query query, TransactionConfig config, Function<QueryResult, T> handler) {
+		long[] mark = { System.nanoTime() };
+		int[] attempts = { 0 };
+		TransactionCallback<T> callback = tx -> {
+			metrics.recordBegin(System.nanoTime() - mark[0]);
+			if (attempts[0]++ > 0) {
+				metrics.recordRetry();
+			}
+			try {
+				return handler.apply(toQueryResult(tx.run(query)));
+			} finally {
+				mark[0] = System.nanoTime();
+			}
+		};
+		T t = write ? session().executeWrite(callback, config) : session().executeRead(callback, config);
+		metrics.recordCommit(System.nanoTime() - mark[0]);
+		return t;
+	}
+
+	/**
+	 * Run a transaction with the config for the timeout. The server stops the transaction
+	 * when the timeout has passed, and as a backstop it is terminated from another session
+	 * a moment later, if it is still running. The backstop is timed here, from before the
+	 * request is sent, so it also waits for the network allowance.
+	 */
+	private <T> T withTimeout(Duration timeout, Function<TransactionConfig, T> transaction) {
+		if (timeout == null) {
+			return transaction.apply(TransactionConfig.empty());
+		}
+
+		// The transaction is tagged, so that the backstop can find it from another session
+		String id = UUID.randomUUID().toString();
+		var config = TransactionConfig.builder()
+				.withTimeout(timeout)
+				.withMetadata(Map.of(TRANSACTION_ID, id))
+				.build();
+		ScheduledFuture<?> backstop = Backstop.schedule(timeout.plus(networkAllowance), () -> terminate(id));
+		try {
+			return transaction.apply(config);
+		} catch (RuntimeException e) {
+			throw QueryTimeoutException.of(e, isStopped(e), timeout);
+		} finally {
+			backstop.cancel(false);
+		}
+	}
+
+	/**
+	 * If the error is the server saying that the transaction timed out or was terminated.
+	 */
+	private static boolean isStopped(Throwable e) {
+		for (Throwable t = e; t != null; t = t.getCause()) {
+			if (t instanceof Neo4jException error && error.code() != null &&
+					(error.code().startsWith("Neo.ClientError.Transaction.TransactionTimedOut") ||
+					error.code().endsWith(".Transaction.Terminated"))) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Terminate the transaction with the id from another session, if it is still running.
+	 */
+	private void terminate(String id) {
+		try (Session terminator = driver.session(SessionConfig.forDatabase(db))) {
+			terminator.run(
+					"""
+					SHOW TRANSACTIONS YIELD transactionId AS transaction, metaData
+					WHERE metaData.%s = $id
+					TERMINATE TRANSACTIONS transaction
+					YIELD message
+					RETURN transaction, message
+					""".formatted(TRANSACTION_ID),
+					Map.of("id", id)).consume();
+		} catch (RuntimeException e) {
+			System.err.println("Failed to terminate transaction " + id + ": " + e.getMessage());
+		}
+	}
+
+	@Override
+	public <T> T write(String cypher, Map<String, Object> parameters, Function<QueryResult, T> handler) {
+		return execute(true, new Query(cypher, parameters), TransactionConfig.empty(), handler);
+	}
+
+	@Override
+	public <T> T discard(String setup, Map<String, Object> setupParameters, String cypher,
+			Map<String, Object> parameters, Duration timeout, Function<QueryResult, T> handler) {
+		return withTimeout(timeout, config -> {
+			// Closing the transaction without a commit rolls it back
+			long beforeBegin = System.nanoTime();
+			try (Transaction tx = session().beginTransaction(config)) {
+				metrics.recordBegin(System.nanoTime() - beforeBegin);
+				if (setup != null) {
+					tx.run(new Query(setup, setupParameters)).consume();
+				}
+				return handler.apply(toQueryResult(tx.run(new Query(cypher, parameters))));
+			}
+		});
+	}
+
+	@Override
+	public void close() {
+		if (session != null) {
+			session.close();
+		}
+	}
+
+	private static QueryResult toQueryResult(Result result) {
+		List<Map<String, Value>> rows = result.list(r -> r.asMap(Function.<Value>identity()));
+		ResultSummary summary = result.consume();
+		long serverTimeNs = serverTimeNs(summary);
+		if (!summary.hasProfile()) {
+			return new QueryResult(rows, null, serverTimeNs);
+		}
+
+		List<QueryProfile.Operator> operators = new ArrayList<>();
+		flatten(summary.profile(), operators);
+		return new QueryResult(rows, operators, serverTimeNs);
+	}
+
+	/**
+	 * The time the server reports for the query: until the first row was available and
+	 * then until all rows were consumed. The server reports whole milliseconds.
+	 */
+	private static long serverTimeNs(ResultSummary summary) {
+		long availableMs = summary.resultAvailableAfter(TimeUnit.MILLISECONDS);
+		long consumedMs = summary.resultConsumedAfter(TimeUnit.MILLISECONDS);
+		if (availableMs < 0 || consumedMs < 0) {
+			return -1;
+		}
+		return TimeUnit.MILLISECONDS.toNanos(availableMs + consumedMs);
+	}
+
+	private static void flatten(ProfiledPlan plan, List<QueryProfile.Operator> operators) {
+		Value details = plan.arguments().get("Details");
+		operators.add(new QueryProfile.Operator(
+				plan.operatorType(),
+				details == null || details.isNull() ? "" : details.asString(),
+				plan.records(),
+				plan.dbHits(),
+				plan.hasPageCacheStats() ? plan.pageCacheHits() : 0,
+				plan.hasPageCacheStats() ? plan.pageCacheMisses() : 0,
+				plan.time()));
+		for (ProfiledPlan child : plan.children()) {
+			flatten(child, operators);
+		}
+	}
+}
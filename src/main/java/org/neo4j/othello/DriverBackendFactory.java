@@ -0,0 +1,62 @@
+package org.neo4j.othello;
+
+import java.util.concurrent.TimeUnit;
+
+import org.neo4j.driver.AuthTokens;
+import org.neo4j.driver.Config;
+import org.neo4j.driver.Driver;
+import org.neo4j.driver.GraphDatabase;
+
+/**
+ * Creates the driver, with the connection pool and fetch size configured by system
+ * properties where they are set, and the driver defaults otherwise.
+ */
+public class DriverBackendFactory implements BackendFactory {
+	static final String MAX_POOL_SIZE_PROPERTY = "othello.driver.maxPoolSize";
+	static final String MAX_CONNECTION_LIFETIME_PROPERTY = "othello.driver.maxConnectionLifetimeS";
+	static final String ACQUISITION_TIMEOUT_PROPERTY = "othello.driver.acquisitionTimeoutMs";
+	static final String FETCH_SIZE_PROPERTY = "othello.driver.fetchSize";
+
+	private final Driver driver;
+	private final ConnectionMetrics metrics = new ConnectionMetrics();
+
+	public DriverBackendFactory(String uri, String user, String pwd) {
+		driver = GraphDatabase.driver(uri, AuthTokens.basic(user, pwd), config());
+	}
+
+	private static Config config() {
+		Config.ConfigBuilder builder = Config.builder();
+		Integer maxPoolSize = Integer.getInteger(MAX_POOL_SIZE_PROPERTY);
+		if (maxPoolSize != null) {
+			builder.withMaxConnectionPoolSize(maxPoolSize);
+		}
+		Long maxConnectionLifetimeS = Long.getLong(MAX_CONNECTION_LIFETIME_PROPERTY);
+		if (maxConnectionLifetimeS != null) {
+			builder.withMaxConnectionLifetime(maxConnectionLifetimeS, TimeUnit.SECONDS);
+		}
+		Long acquisitionTimeoutMs = Long.getLong(ACQUISITION_TIMEOUT_PROPERTY);
+		if (acquisitionTimeoutMs != null) {
+			builder.withConnectionAcquisitionTimeout(acquisitionTimeoutMs, TimeUnit.MILLISECONDS);
+		}
+		Long fetchSize = Long.getLong(FETCH_SIZE_PROPERTY);
+		if (fetchSize != null) {
+			builder.withFetchSize(fetchSize);
+		}
+		return builder.build();
+	}
+
+	@Override
+	public Backend open(String db) {
+		return new DriverBackend(driver, db, metrics);
+	}
+
+	@Override
+	public ConnectionMetrics getMetrics() {
+		return metrics;
+	}
+
+	@Override
+	public void close() {
+		driver.close();
+	}
+}
@@ -1,14 +1,36 @@
 package org.neo4j.othello;
 
+import java.awt.GraphicsEnvironment;
 import java.awt.Point;
-import java.util.Collection;
-import java.util.concurrent.TimeUnit;
+import java.io.IOException;
+import java.lang.reflect.InvocationTargetException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 
 import javax.swing.JOptionPane;
 
 public class Game {
-	private static final int HEIGHT = 8;
-	private static final int WIDTH = 8;
+	static final String VERIFY_PROPERTY = "othello.verify";
+	static final String GAME_PROPERTY = "othello.game";
+	static final String TIMINGS_PROPERTY = "othello.timings";
+	static final String PROFILE_PROPERTY = "othello.profile";
+	static final String RECORDS_PROPERTY = "othello.records";
+	static final String WARMUP_PROPERTY = "othello.warmup";
+	static final String CLOCK_PROPERTY = "othello.clock";
+	static final String MOVE_CACHE_PROPERTY = "othello.moveCache";
+	static final String SIZE_PROPERTY = "othello.size";
+	static final String ANIMATION_PROPERTY = "othello.animation";
+	static final String SPECTATOR_PORT_PROPERTY = "othello.spectatorPort";
+	static final String JOURNAL_PROPERTY = "othello.journal";
+	static final String RESUME_PROPERTY = "othello.resume";
+	static final String NETWORK_ALLOWANCE_PROPERTY = "othello.networkAllowanceMs";
+	static final int DEFAULT_WARMUP_RUNS = 3;
 
 	public static void main(String[] args) {
 		////////////////////////////////////////////////////////
@@ -29,16 +51,22 @@ public class Game {
 		Player player2 = null;
 		
 		try {
-			player1 = (Player)Class.forName(Game.class.getPackageName() + "." + player1Name)
-					.getConstructor().newInstance();
+			player1 = createPlayer(player1Name);
+		}
+		catch (IllegalArgumentException e) {
+			System.err.println(e.getMessage());
+			return;
 		}
 		catch (Throwable t) {
 			System.err.println("Player class name " + player1Name + " not found");
 			return;
 		}
 		try {
-			player2 = (Player)Class.forName(Game.class.getPackageName() + "." + player2Name)
-					.getConstructor().newInstance();
+			player2 = createPlayer(player2Name);
+		}
+		catch (IllegalArgumentException e) {
+			System.err.println(e.getMessage());
+			return;
 		}
 		catch (Throwable t) {
 			System.err.println("Player class name " + player2Name + " not found");
@@ -80,10 +108,76 @@ public class Game {
 		}
 
 
+		// Check if the board in the graph should be compared with the local board after every move
+		boolean verify = Boolean.getBoolean(VERIFY_PROPERTY);
+
+		// Check if the player queries should be profiled
+		boolean profile = Boolean.getBoolean(PROFILE_PROPERTY);
+
+		// Number of times the player queries are run before the game, so that the first move is timed like the rest
+		int warmUpRuns = Integer.getInteger(WARMUP_PROPERTY, DEFAULT_WARMUP_RUNS);
+
+		// Check if the players have a chess clock, as well as or instead of the time limit per move
+		Clock clock;
+		try {
+			clock = parseClock();
+		} catch (NumberFormatException e) {
+			System.err.println("Incorrect format of clock, should be seconds with an optional increment in seconds, " +
+					"like 300+2, but was: " + System.getProperty(CLOCK_PROPERTY));
+			return;
+		}
+
+		// Number of moves of deterministic players to cache, 0 for no cache
+		int moveCacheSize = Integer.getInteger(MOVE_CACHE_PROPERTY, 0);
+		MoveCache moveCache = moveCacheSize > 0 ? new MoveCache(moveCacheSize) : null;
+
+		// How much the network may add to the time of a move, which is otherwise timed by the database
+		Duration networkAllowance;
+		try {
+			networkAllowance = parseNetworkAllowance();
+		} catch (IllegalArgumentException e) {
+			System.err.println(e.getMessage());
+			return;
+		}
+
+		// Number of cells on each side of the board
+		int size = Integer.getInteger(SIZE_PROPERTY, Board.DEFAULT_SIZE);
+		try {
+			Board.checkSize(size);
+		} catch (IllegalArgumentException e) {
+			System.err.println(e.getMessage());
+			return;
+		}
+
+		// Check if the game should only use its own cells, so that it can share the database with other games
+		String game = System.getProperty(GAME_PROPERTY);
+
+		// Journal the moves, so that the game can be resumed if it is interrupted
+		GameJournal journal;
+		try {
+			journal = openJournal();
+		} catch (IOException e) {
+			System.err.println("Failed to open the game journal " + System.getProperty(JOURNAL_PROPERTY) + ": " +
+					e.getMessage());
+			return;
+		}
+		GameJournal.JournaledGame resumed = findResumable(journal, player1Name, player2Name);
+		int boardSize = resumed == null ? size : resumed.getRecord().getBoardSize();
+		if (resumed != null) {
+			System.err.println("Resuming game " + resumed.getNumber() + " after " + resumed.getRecord().size() +
+					" moves");
+		}
+
+
 		////////////////////////////////////////////////////////
 		// Prepare game objects
 		
 		boolean hasHuman = player1 instanceof Human || player2 instanceof Human;
+		boolean headless = GraphicsEnvironment.isHeadless();
+		if (headless && hasHuman) {
+			System.err.println("A human player needs a display");
+			return;
+		}
 
 		PlayerWrapper[] players = new PlayerWrapper[] {
 				new PlayerWrapper(
@@ -95,95 +189,274 @@ public class Game {
 						player2,
 						"O") };
 
-		GameFrame frame = new GameFrame(WIDTH, HEIGHT, hasHuman, position);
-		frame.setVisible(true);
-		
+		// Connect and set up the grid while the frame is being created
+		CompletableFuture<DBConnection> connecting = CompletableFuture.supplyAsync(() -> {
+			DBConnection db = new DBConnection(args[2], args[3], args[4], args[5], args[6], game);
+			try {
+				db.setSize(boardSize);
+				db.setNetworkAllowance(networkAllowance);
+				db.setupGrid();
+				return db;
+			} catch (RuntimeException e) {
+				try {
+					db.close();
+				} catch (Exception suppressed) {
+					e.addSuppressed(suppressed);
+				}
+				throw e;
+			}
+		});
+
+		if (clock != null) {
+			for (PlayerWrapper player : players) {
+				player.setClock(clock.copy());
+			}
+		}
+
+		// Without a display the game is only shown to spectators, if any
+		GameFrame frame = null;
+		if (!headless) {
+			frame = new GameFrame(boardSize, boardSize, hasHuman, position);
+			frame.setAnimated(Boolean.getBoolean(ANIMATION_PROPERTY));
+			frame.setVisible(true);
+		}
+		Spectators spectators = startSpectators();
+
 
 		////////////////////////////////////////////////////////
 		// Main game loop
 
-		try (DBConnection db = new DBConnection(args[2], args[3], args[4], args[5], args[6])) {
-			db.setupGrid();
-			frame.update(db.getState());
-
-			int skippedMoved = 0;
-			while (frame.isVisible()) {
-				for (PlayerWrapper player : players) {
-					if (frame.isVisible()) {
-						frame.setPlayer(player);
-						if(!db.isAnyMovePossible(player)) {
-							if (++skippedMoved >= 2) {
-								String winningSymbol = db.getWinner();
-								PlayerWrapper winner = null;
-								for (PlayerWrapper p : players) {
-									if (p.getSymbol().equals(winningSymbol)) {
-										winner = p;
-										break;
-									}
-								}
-								if (winner == null) {
-									JOptionPane.showMessageDialog(frame, "There is no winner, it's a draw", "Draw", JOptionPane.INFORMATION_MESSAGE);
-									System.out.println(players[1].getName());
-								} else {
-									JOptionPane.showMessageDialog(frame, winner.getName() + " (" + winner.getColor() + ") won the game", "Winner", JOptionPane.INFORMATION_MESSAGE);
-									System.out.println(winner.getName());
-								}
-								frame.dispose();
-								break;
-							}
-							else {
-								continue;
-							}
-						} else {
-							skippedMoved = 0;
-						}
-						Collection<Cell> state = player.tick(db, frame, timeLimitS);
-						if (state != null) {
-							frame.update(state);
-						}
-					}
-				}
-			}
-		} catch (IllegalMoveException e) {
-			if (frame.isVisible()) {
-				frame.setInvalidMove(e.getInvalidMove());
-				JOptionPane.showMessageDialog(frame, e.getMessage(), "Invalid move", JOptionPane.INFORMATION_MESSAGE);
+		ConnectionMetrics connectionMetrics = null;
+		try (DBConnection db = connecting.join()) {
+			connectionMetrics = db.getConnectionMetrics();
+			db.setProfile(profile);
+			db.setMoveCache(moveCache);
+			Match match = new Match(players[0], players[1], db, frame, timeLimitS, verify, warmUpRuns);
+			match.setSpectators(spectators);
+			match.setJournal(journal);
+			if (resumed != null) {
+				match.resume(resumed);
 			}
-			System.out.println(players[0] == e.getPlayer() ? players[1].getName() : players[0].getName());
-		} catch (TimeLimitException e) {
-			if (frame.isVisible()) {
-				JOptionPane.showMessageDialog(frame, e.getMessage(), "Invalid move", JOptionPane.INFORMATION_MESSAGE);
+			MatchResult result = match.play(false);
+			saveRecord(result.getRecord());
+			switch (result.getOutcome()) {
+			case WIN:
+				if (frame != null) {
+					JOptionPane.showMessageDialog(frame, result.getMessage(), "Winner", JOptionPane.INFORMATION_MESSAGE);
+				}
+				System.out.println(result.getWinner().getName());
+				break;
+			case DRAW:
+				if (frame != null) {
+					JOptionPane.showMessageDialog(frame, result.getMessage(), "Draw", JOptionPane.INFORMATION_MESSAGE);
+				}
+				System.out.println(players[1].getName());
+				break;
+			case ILLEGAL_MOVE:
+				if (frame != null && frame.isVisible()) {
+					frame.setInvalidMove(((IllegalMoveException)result.getCause()).getInvalidMove());
+					JOptionPane.showMessageDialog(frame, result.getMessage(), "Invalid move", JOptionPane.INFORMATION_MESSAGE);
+				}
+				System.out.println(result.getWinner().getName());
+				break;
+			case TIME_LIMIT:
+				if (frame != null && frame.isVisible()) {
+					JOptionPane.showMessageDialog(frame, result.getMessage(), "Invalid move", JOptionPane.INFORMATION_MESSAGE);
+				}
+				System.out.println(result.getWinner().getName());
+				break;
+			case FAILURE:
+				result.getCause().printStackTrace();
+				if (frame != null && frame.isVisible()) {
+					JOptionPane.showMessageDialog(frame, result.getMessage(), "Failure", JOptionPane.ERROR_MESSAGE);
+				}
+				System.out.println("");
+				break;
+			case ABORTED:
+				break;
 			}
-			System.out.println(players[0] == e.getPlayer() ? players[1].getName() : players[0].getName());
 		} catch (Throwable t) {
+			if (t instanceof CompletionException && t.getCause() != null) {
+				t = t.getCause();
+			}
 			t.printStackTrace();
-			if (frame.isVisible()) {
+			if (frame != null && frame.isVisible()) {
 				JOptionPane.showMessageDialog(frame, t.getMessage(), "Failure", JOptionPane.ERROR_MESSAGE);
 			}
 			System.out.println("");
 		} finally {
-			if (benchmark) {
-				debugOutputResult("Completed", players);
+			reportTimings(players, connectionMetrics, moveCache, benchmark);
+			if (profile) {
+				reportProfiles(players);
 			}
-			if (frame.isVisible()) {
+			if (frame != null && frame.isVisible()) {
 				frame.dispose();
 			}
+			if (spectators != null) {
+				spectators.close();
+			}
+			if (journal != null) {
+				try {
+					journal.close();
+				} catch (IOException e) {
+					System.err.println("Failed to close the game journal: " + e.getMessage());
+				}
+			}
+		}
+	}
+
+	/**
+	 * @return The allowance for the network given by -Dothello.networkAllowanceMs, or
+	 *         null if there is none
+	 * @throws IllegalArgumentException if the allowance is not a number of milliseconds
+	 */
+	static Duration parseNetworkAllowance() {
+		String allowance = System.getProperty(NETWORK_ALLOWANCE_PROPERTY);
+		if (allowance == null) {
+			return null;
+		}
+		try {
+			long ms = Long.parseLong(allowance.trim());
+			if (ms >= 0) {
+				return Duration.ofMillis(ms);
+			}
+		} catch (NumberFormatException e) {
+			// Reported below
+		}
+		throw new IllegalArgumentException("Incorrect network allowance, should be milliseconds as integer, but was: " +
+				allowance);
+	}
+
+	/**
+	 * The journal given by -Dothello.journal, or null if there is none.
+	 */
+	static GameJournal openJournal() throws IOException {
+		String file = System.getProperty(JOURNAL_PROPERTY);
+		return file == null ? null : new GameJournal(Path.of(file));
+	}
+
+	/**
+	 * The game between the players to continue, if -Dothello.resume is set and their
+	 * last game in the journal is unfinished, otherwise null.
+	 */
+	static GameJournal.JournaledGame findResumable(GameJournal journal, String black, String white) {
+		if (journal == null || !Boolean.getBoolean(RESUME_PROPERTY)) {
+			return null;
+		}
+		GameJournal.JournaledGame game = journal.find(black, white);
+		return game == null || game.isFinished() ? null : game;
+	}
+
+	/**
+	 * Start the server for spectators on the port given by -Dothello.spectatorPort, if set.
+	 *
+	 * @return The server, or null if there are no spectators or it couldn't be started
+	 */
+	static Spectators startSpectators() {
+		Integer port = Integer.getInteger(SPECTATOR_PORT_PROPERTY);
+		if (port == null) {
+			return null;
+		}
+		try {
+			Spectators spectators = new Spectators(port);
+			System.err.println("Spectators can watch at http://localhost:" + spectators.getPort() + "/");
+			return spectators;
+		} catch (IOException e) {
+			System.err.println("Failed to start the server for spectators on port " + port + ": " + e.getMessage());
+			return null;
+		}
+	}
+
+	/**
+	 * Save the record of the game in the directory given by -Dothello.records, if set.
+	 */
+	static void saveRecord(GameRecord record) {
+		String directory = System.getProperty(RECORDS_PROPERTY);
+		if (directory != null) {
+			try {
+				record.saveTo(Path.of(directory));
+			} catch (IOException e) {
+				System.err.println("Failed to save game record in " + directory + ": " + e.getMessage());
+			}
 		}
 	}
 
-	private static void debugOutputResult(String result, PlayerWrapper[] players) {
-		System.out.println(result);
-		System.out.println("Benchmarking");
+	private static void reportTimings(PlayerWrapper[] players, ConnectionMetrics connectionMetrics,
+			MoveCache moveCache, boolean print) {
+		Map<String, PhaseTimings> timings = new LinkedHashMap<>();
 		for (PlayerWrapper player : players) {
-			System.out.println(" - " + player.getName());
-			long totalTime = 0;
-			for (long timestampNs : player.getTimestampsNs()) {
-				long timestampMs = TimeUnit.NANOSECONDS.toMillis(timestampNs);
-				totalTime += timestampNs;
-				System.out.println("" + timestampMs + " ms");
-			}
-			System.out.println("Average: " + (TimeUnit.NANOSECONDS.toMillis(totalTime) /
-					player.getTimestampsNs().size()) + " ms");
+			timings.put(player.getName() + " (" + player.getColor() + ")", player.getTimings());
+		}
+		exportTimings(new TimingReport(timings), print);
+		if (print) {
+			for (PlayerWrapper player : players) {
+				if (player.getClock() != null) {
+					System.out.println(String.format(Locale.ROOT, "%-24s %s left on the clock",
+							player.getName() + " (" + player.getColor() + ")", player.getClock()));
+				}
+			}
+			if (connectionMetrics != null) {
+				connectionMetrics.print(System.out);
+			}
+			if (moveCache != null) {
+				moveCache.print(System.out);
+			}
+		}
+	}
+
+	/**
+	 * The time control given by -Dothello.clock, or null if the players have no clock.
+	 *
+	 * @throws NumberFormatException if it is not in the right format
+	 */
+	static Clock parseClock() {
+		String timeControl = System.getProperty(CLOCK_PROPERTY);
+		return timeControl == null ? null : Clock.parse(timeControl);
+	}
+
+	private static void reportProfiles(PlayerWrapper[] players) {
+		Map<String, List<QueryProfile>> profiles = new LinkedHashMap<>();
+		for (PlayerWrapper player : players) {
+			profiles.put(player.getName() + " (" + player.getColor() + ")", player.getProfiles());
+		}
+		new ProfileReport(profiles).print(System.out, true);
+	}
+
+	/**
+	 * Print the report if requested, and write it to the file given by -Dothello.timings if set.
+	 */
+	static void exportTimings(TimingReport report, boolean print) {
+		if (print) {
+			System.out.println("Benchmarking");
+			report.print(System.out);
+		}
+		String file = System.getProperty(TIMINGS_PROPERTY);
+		if (file != null) {
+			try {
+				report.write(Path.of(file));
+			} catch (IOException e) {
+				System.err.println("Failed to write timings to " + file + ": " + e.getMessage());
+			}
+		}
+	}
+
+	/**
+	 * Instantiate a player from its class name (without package name). Anything after
+	 * a dash is passed to the constructor of the player, e.g. AlphaBeta-6.
+	 */
+	static Player createPlayer(String name) throws ReflectiveOperationException {
+		int dash = name.indexOf('-');
+		Class<?> type = Class.forName(Game.class.getPackageName() + "." + (dash < 0 ? name : name.substring(0, dash)));
+		if (dash < 0) {
+			return (Player)type.getConstructor().newInstance();
+		}
+		try {
+			return (Player)type.getConstructor(String.class).newInstance(name.substring(dash + 1));
+		} catch (InvocationTargetException e) {
+			if (e.getCause() instanceof IllegalArgumentException cause) {
+				throw cause;
+			}
+			throw e;
 		}
 	}
 }
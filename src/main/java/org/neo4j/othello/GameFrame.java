@@ -1,14 +1,13 @@
 package org.neo4j.othello;
 
 import java.awt.BorderLayout;
-import java.awt.Color;
-import java.awt.Dimension;
-import java.awt.Graphics;
 import java.awt.GridLayout;
 import java.awt.Point;
 import java.awt.event.WindowAdapter;
 import java.awt.event.WindowEvent;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.List;
 
 import javax.swing.JButton;
 import javax.swing.JFrame;
@@ -23,38 +22,25 @@ public class GameFrame extends JFrame {
 	private static final long serialVersionUID = 1L;
 
 	private HumanSelection humanSelection = new HumanSelection();
-	private final CellComponent[] cellComponents;
+	private final BoardComponent board;
 	private final JLabel turn = new JLabel("     ", SwingConstants.CENTER);
+	private final JLabel blackClock = new JLabel("", SwingConstants.LEFT);
+	private final JLabel whiteClock = new JLabel("", SwingConstants.RIGHT);
 	private final JTextField delay = new JTextField("1");
 	private final JButton tick = new JButton("Tick");
 	private final JToggleButton autoTick = new JToggleButton("Auto tick");
 	private long delayTime = 0;
-	private Cell[] currentCells = null;
-	private int width;
+	private long lastTickNs;
 
 	public GameFrame(int width, int height, boolean hasHuman, Point position) {
 		super("Five in a row");
-
-		this.width = width;
+		lastTickNs = System.nanoTime();
 
 		setLayout(new BorderLayout(5, 5));
 
-		cellComponents = new CellComponent[width*height];
-
-		JPanel gridPanel = new JPanel(new GridLayout(height, width));
-		for (int y = 0; y < height; y++) {
-			for (int x = 0; x < width; x++) {
-				cellComponents[y*width + x] = new CellComponent();
-				gridPanel.add(cellComponents[y*width + x]);
-				cellComponents[y*width + x].setEnabled(hasHuman);
-				if (hasHuman) {
-					final int xx = x;
-					final int yy = y;
-					cellComponents[y*width + x].addActionListener(event -> {
-						humanSelection.setSelection(xx, yy);
-					});
-				}
-			}
+		board = new BoardComponent(width, height);
+		if (hasHuman) {
+			board.setSelectionListener(humanSelection::setSelection);
 		}
 
 		JPanel controlPanel = new JPanel(new GridLayout(2, 2, 5, 5));
@@ -63,9 +49,13 @@ public class GameFrame extends JFrame {
 		controlPanel.add(delay);
 		controlPanel.add(autoTick);
 		
-		add(turn, BorderLayout.NORTH);
+		JPanel statusPanel = new JPanel(new BorderLayout(5, 5));
+		statusPanel.add(blackClock, BorderLayout.WEST);
+		statusPanel.add(turn, BorderLayout.CENTER);
+		statusPanel.add(whiteClock, BorderLayout.EAST);
+		add(statusPanel, BorderLayout.NORTH);
 
-		add(gridPanel, BorderLayout.CENTER);
+		add(board, BorderLayout.CENTER);
 
 		if (!hasHuman) {
 			delayTime = -1;
@@ -126,21 +116,53 @@ public class GameFrame extends JFrame {
 		autoTick.requestFocus();
 	}
 	
+	/**
+	 * @param animated true to show the turning of bricks, which is done on the event
+	 *                 thread and doesn't slow the game down
+	 */
+	public void setAnimated(boolean animated) {
+		board.setAnimated(animated);
+	}
+
 	public void setPlayer(PlayerWrapper player) {
-		turn.setText(player.getColor());
+		String color = player.getColor();
+		SwingUtilities.invokeLater(() -> turn.setText(color));
 	}
 
-	public void update(Collection<Cell> c) {
-		currentCells = c.toArray(new Cell[0]);
-		for (int i = 0; i < currentCells.length && i < cellComponents.length; i++) {
-			cellComponents[i].update(currentCells[i]);
+	/**
+	 * Show the time left on the clock of the player, if it has one.
+	 */
+	public void setClock(PlayerWrapper player) {
+		if (player.getClock() != null) {
+			JLabel label = player.getSymbol().equals("X") ? blackClock : whiteClock;
+			String text = player.getColor() + " " + player.getClock();
+			SwingUtilities.invokeLater(() -> label.setText(text));
 		}
 	}
 
-	public Cell[] getCurrentCells() {
-		return currentCells;
+	/**
+	 * Show the cells. Like all updates this can be called from any thread, and
+	 * returns without waiting for the board to be painted.
+	 */
+	public void update(Collection<Cell> c) {
+		board.setCells(c);
+	}
+
+	/**
+	 * Update only the cells changed by a move, on top of the cells already shown.
+	 */
+	public void apply(Move move) {
+		List<Cell> cells = new ArrayList<>(move.getFlipped().size() + 1);
+		cells.add(move.getPlaced());
+		cells.addAll(move.getFlipped());
+		board.setCells(cells);
 	}
 
+	/**
+	 * Wait for the tick button, or with auto tick until the delay has passed since the
+	 * last tick. The time the last move took is part of the delay, so with a delay
+	 * shorter than the moves they are made one after the other.
+	 */
 	public synchronized void waitForNextTick() {
 		try {
 			if (delayTime == 0) {
@@ -149,12 +171,16 @@ public class GameFrame extends JFrame {
 			else if (delayTime < 0) {
 				wait();
 			} else {
-				wait(delayTime);
+				long remainingMs = delayTime - (System.nanoTime() - lastTickNs) / 1_000_000;
+				if (remainingMs > 0) {
+					wait(remainingMs);
+				}
 			}
 		}
 		catch (InterruptedException e) {
 			// Never mind
 		}
+		lastTickNs = System.nanoTime();
 	}
 
 	public HumanSelection waitForHumanMove() {
@@ -170,49 +196,7 @@ public class GameFrame extends JFrame {
 	}
 
 	public void setInvalidMove(Cell cell) {
-		try {
-			SwingUtilities.invokeAndWait(() -> {
-				cellComponents[cell.getRow()*width + cell.getColumn()].setText("-");
-			});
-		} catch (Exception e) {
-			// Ignore
-		}
-	}
-
-	private class CellComponent extends JButton {
-		private static final long serialVersionUID = 1L;
-
-		public CellComponent() {
-			setHorizontalAlignment(CENTER);
-			setVerticalAlignment(CENTER);
-			setPreferredSize(new Dimension(30, 30));
-			setFont(getFont().deriveFont(getFont().getSize2D()*2f));
-		}
-
-		public void update(Cell cell) {
-			setText(cell.toString());
-			if (isEnabled()) {
-				setEnabled(cell.toString().isBlank());
-			}
-		}
-
-		@Override
-		protected void paintComponent(Graphics g) {
-			g.setColor(new Color(0,144,103));
-			g.fillRect(0, 0, getWidth(), getHeight());
-			g.setColor(Color.black);
-			g.drawRect(0, 0, getWidth(), getHeight());
-			if (!getText().isBlank()) {
-				if (getText().trim().equalsIgnoreCase("X")) {
-					g.setColor(Color.black);
-				} else if (getText().trim().equalsIgnoreCase("O")) {
-					g.setColor(Color.white);
-				} else {
-					g.setColor(Color.red);
-				}
-				g.fillOval(2, 2, getWidth()-4, getHeight()-4);
-			}
-		}
+		board.setInvalid(cell);
 	}
 
 	public class HumanSelection {
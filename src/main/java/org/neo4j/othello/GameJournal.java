@@ -0,0 +1,272 @@
+package org.neo4j.othello;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only journal of the games being played, so that a game or a tournament
+ * can be resumed after the JVM or the database connection died. Every game start,
+ * move (with its time) and game end is one entry.
+ *
+ * The file is pre-allocated and memory mapped, so appending an entry is a copy into
+ * memory that the operating system writes to the file, also if the JVM dies. The
+ * file is only forced to the disk when a game ends, so a crash of the machine
+ * itself may lose the moves of the games being played. Every entry has its length
+ * written last and a checksum, so an entry that was only partly written is ignored.
+ */
+public class GameJournal implements AutoCloseable {
+	private static final int MAGIC = 0x4f54484a; // "OTHJ"
+	private static final int VERSION = 1;
+	private static final int HEADER_SIZE = 8;
+	private static final int INITIAL_SIZE = 1 << 20;
+	private static final byte START = 1;
+	private static final byte MOVE = 2;
+	private static final byte END = 3;
+
+	private final FileChannel channel;
+	private final Map<Integer, JournaledGame> games = new LinkedHashMap<>();
+	private MappedByteBuffer buffer;
+
+	/**
+	 * Open the journal, or create it if it doesn't exist, and read the games in it.
+	 * New entries are added after the last complete one.
+	 */
+	public GameJournal(Path file) throws IOException {
+		channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+				StandardOpenOption.WRITE);
+		boolean created = channel.size() == 0;
+		buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, Math.max(INITIAL_SIZE, channel.size()));
+		if (created) {
+			buffer.putInt(MAGIC);
+			buffer.putInt(VERSION);
+		} else if (buffer.getInt() != MAGIC || buffer.getInt() != VERSION) {
+			channel.close();
+			throw new IOException("Not a game journal: " + file);
+		}
+		readEntries();
+	}
+
+	private void readEntries() throws IOException {
+		buffer.position(HEADER_SIZE);
+		while (buffer.remaining() >= Integer.BYTES) {
+			int start = buffer.position();
+			int length = buffer.getInt();
+			if (length <= 0 || length > buffer.remaining() - Long.BYTES) {
+				buffer.position(start);
+				break;
+			}
+			byte[] body = new byte[length];
+			buffer.get(body);
+			if (buffer.getLong() != checksum(body)) {
+				buffer.position(start);
+				break;
+			}
+			apply(new DataInputStream(new ByteArrayInputStream(body)));
+		}
+		// Clear what is left of an entry that was only partly written
+		for (int i = buffer.position(); i < buffer.limit(); i++) {
+			buffer.put(i, (byte)0);
+		}
+	}
+
+	private void apply(DataInputStream in) throws IOException {
+		byte type = in.readByte();
+		int number = in.readInt();
+		switch (type) {
+		case START:
+			String black = in.readUTF();
+			String white = in.readUTF();
+			String database = in.readUTF();
+			int size = in.readByte();
+			games.put(number, new JournaledGame(number, database, new GameRecord(black, white, size)));
+			break;
+		case MOVE:
+			games.get(number).addMove(in.readShort(), in.readLong());
+			break;
+		case END:
+			games.get(number).end(in.readUTF(), in.readUTF(), in.readUTF());
+			break;
+		default:
+			throw new IOException("Unknown journal entry " + type);
+		}
+	}
+
+	/**
+	 * @return All games in the journal, finished or not, in the order they were started
+	 */
+	public synchronized List<JournaledGame> getGames() {
+		return Collections.unmodifiableList(new ArrayList<>(games.values()));
+	}
+
+	/**
+	 * @return The last game between the players, or null if there is none
+	 */
+	public synchronized JournaledGame find(String black, String white) {
+		JournaledGame found = null;
+		for (JournaledGame game : games.values()) {
+			if (game.record.getBlack().equals(black) && game.record.getWhite().equals(white)) {
+				found = game;
+			}
+		}
+		return found;
+	}
+
+	/**
+	 * @return The number of the game, that its moves are journaled with
+	 */
+	public synchronized int start(String black, String white, String database, int size) {
+		int number = games.size() + 1;
+		games.put(number, new JournaledGame(number, database, new GameRecord(black, white, size)));
+		append(START, number, out -> {
+			out.writeUTF(black);
+			out.writeUTF(white);
+			out.writeUTF(database);
+			out.writeByte(size);
+		});
+		return number;
+	}
+
+	/**
+	 * @param move The index (y*size+x) of the cell of the move, or {@link GameRecord#PASS}
+	 */
+	public synchronized void move(int number, int move, long timeNs) {
+		games.get(number).addMove(move, timeNs);
+		append(MOVE, number, out -> {
+			out.writeShort(move);
+			out.writeLong(timeNs);
+		});
+	}
+
+	/**
+	 * Journal the end of a game, and force the journal to the disk.
+	 */
+	public synchronized void end(int number, MatchResult result) {
+		String outcome = result.getOutcome().name();
+		String winner = result.getWinner() == null ? "" : result.getWinner().getSymbol();
+		String message = String.valueOf(result.getMessage());
+		games.get(number).end(outcome, winner, message);
+		append(END, number, out -> {
+			out.writeUTF(outcome);
+			out.writeUTF(winner);
+			out.writeUTF(message);
+		});
+		buffer.force();
+	}
+
+	private interface EntryWriter {
+		void write(DataOutputStream out) throws IOException;
+	}
+
+	private void append(byte type, int number, EntryWriter writer) {
+		try {
+			ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+			DataOutputStream out = new DataOutputStream(bytes);
+			out.writeByte(type);
+			out.writeInt(number);
+			writer.write(out);
+			byte[] body = bytes.toByteArray();
+
+			int needed = Integer.BYTES + body.length + Long.BYTES + Integer.BYTES; // And the length of the next
+			if (buffer.remaining() < needed) {
+				int position = buffer.position();
+				buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, Math.max(buffer.capacity() * 2L,
+						position + needed));
+				buffer.position(position);
+			}
+			int start = buffer.position();
+			buffer.position(start + Integer.BYTES);
+			buffer.put(body);
+			buffer.putLong(checksum(body));
+			buffer.putInt(start, body.length); // The length last, it makes the entry complete
+		} catch (IOException e) {
+			throw new IllegalStateException("Failed to write to the game journal", e);
+		}
+	}
+
+	private static long checksum(byte[] body) {
+		CRC32 crc = new CRC32();
+		crc.update(body);
+		return crc.getValue();
+	}
+
+	@Override
+	public synchronized void close() throws IOException {
+		buffer.force();
+		channel.close();
+	}
+
+	/**
+	 * A game as it is in the journal: the moves that were made, and how it ended if
+	 * it did.
+	 */
+	public static class JournaledGame {
+		private final int number;
+		private final String database;
+		private final GameRecord record;
+		private String winner;
+		private String message;
+
+		private JournaledGame(int number, String database, GameRecord record) {
+			this.number = number;
+			this.database = database;
+			this.record = record;
+		}
+
+		public int getNumber() {
+			return number;
+		}
+
+		public String getDatabase() {
+			return database;
+		}
+
+		/**
+		 * @return The moves made, with the outcome if the game is finished
+		 */
+		public GameRecord getRecord() {
+			return record;
+		}
+
+		public boolean isFinished() {
+			return !record.getOutcome().isEmpty();
+		}
+
+		/**
+		 * @return The symbol of the winner, or null
+		 */
+		public String getWinner() {
+			return winner;
+		}
+
+		public String getMessage() {
+			return message;
+		}
+
+		private void addMove(int move, long timeNs) {
+			if (move == GameRecord.PASS) {
+				record.addPass();
+			} else {
+				record.addMove(move % record.getBoardSize(), move / record.getBoardSize(), timeNs);
+			}
+		}
+
+		private void end(String outcome, String winner, String message) {
+			record.setOutcome(outcome);
+			this.winner = winner.isEmpty() ? null : winner;
+			this.message = message;
+		}
+	}
+}
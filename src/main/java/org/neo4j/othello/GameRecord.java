@@ -0,0 +1,232 @@
+package org.neo4j.othello;
+
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Compact record of a game: the players, the size of the board, the moves (one
+ * byte each, with passes, two for the far cells of boards larger than 10x10) and
+ * the time of each player query. Black makes the first move and then the
+ * players take turns, a pass counts as a turn, so the player of every move is
+ * given by its position. Any position of the game can be rebuilt from the record
+ * without a database.
+ */
+public class GameRecord {
+	public static final int PASS = -1;
+	public static final String FILE_SUFFIX = ".othr";
+
+	private static final int MAGIC = 0x4f544852; // "OTHR"
+	private static final int VERSION = 2;
+	private static final int VERSION_8X8 = 1; // Moves as one signed byte each, PASS as -1
+	private static final AtomicInteger SEQUENCE = new AtomicInteger();
+
+	private final String black;
+	private final String white;
+	private final int boardSize;
+	private String outcome = "";
+	private short[] moves = new short[64];
+	private long[] timesNs = new long[64];
+	private int size = 0;
+
+	public GameRecord(String black, String white) {
+		this(black, white, Board.DEFAULT_SIZE);
+	}
+
+	public GameRecord(String black, String white, int boardSize) {
+		this.black = black;
+		this.white = white;
+		this.boardSize = boardSize;
+	}
+
+	public String getBlack() {
+		return black;
+	}
+
+	public String getWhite() {
+		return white;
+	}
+
+	public int getBoardSize() {
+		return boardSize;
+	}
+
+	public String getOutcome() {
+		return outcome;
+	}
+
+	public void setOutcome(String outcome) {
+		this.outcome = outcome;
+	}
+
+	public void addMove(int x, int y, long timeNs) {
+		add(y * boardSize + x, timeNs);
+	}
+
+	public void addPass() {
+		add(PASS, 0);
+	}
+
+	private void add(int move, long timeNs) {
+		if (size == moves.length) {
+			moves = Arrays.copyOf(moves, size * 2);
+			timesNs = Arrays.copyOf(timesNs, size * 2);
+		}
+		moves[size] = (short)move;
+		timesNs[size] = timeNs;
+		size++;
+	}
+
+	/**
+	 * @return The number of moves, including passes
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * @return The index (y*size+x) of the cell of the move, or PASS
+	 */
+	public int getMove(int ply) {
+		return moves[ply];
+	}
+
+	public long getTimeNs(int ply) {
+		return timesNs[ply];
+	}
+
+	/**
+	 * @return The symbol of the player that makes move number ply (0-indexed)
+	 */
+	public static String getSymbol(int ply) {
+		return ply % 2 == 0 ? "X" : "O";
+	}
+
+	/**
+	 * The board after the first ply moves have been made.
+	 */
+	public Board positionAt(int ply) {
+		Board board = Board.create(boardSize);
+		for (int i = 0; i < ply && i < size; i++) {
+			int move = moves[i];
+			if (move != PASS) {
+				board.play(getSymbol(i), move % boardSize, move / boardSize);
+			}
+		}
+		return board;
+	}
+
+	public static String notation(int move, int boardSize) {
+		if (move == PASS) {
+			return "--";
+		}
+		return "" + (char)('a' + move % boardSize) + (move / boardSize + 1);
+	}
+
+	public void write(DataOutput out) throws IOException {
+		out.writeInt(MAGIC);
+		out.writeByte(VERSION);
+		out.writeUTF(black);
+		out.writeUTF(white);
+		out.writeUTF(outcome);
+		out.writeByte(boardSize);
+		out.writeShort(size);
+		for (int i = 0; i < size; i++) {
+			writeVarLong(out, moves[i] + 1); // 0 is a pass
+		}
+		for (int i = 0; i < size; i++) {
+			writeVarLong(out, timesNs[i] / 1000); // Microseconds are enough
+		}
+	}
+
+	public static GameRecord read(DataInput in) throws IOException {
+		if (in.readInt() != MAGIC) {
+			throw new IOException("Not a game record");
+		}
+		int version = in.readByte();
+		if (version != VERSION && version != VERSION_8X8) {
+			throw new IOException("Unknown game record version " + version);
+		}
+		String black = in.readUTF();
+		String white = in.readUTF();
+		String outcome = in.readUTF();
+		GameRecord record = new GameRecord(black, white, version == VERSION_8X8 ? Board.DEFAULT_SIZE : in.readByte());
+		record.outcome = outcome;
+		int size = in.readShort();
+		int[] moves = new int[size];
+		for (int i = 0; i < size; i++) {
+			moves[i] = version == VERSION_8X8 ? in.readByte() : (int)readVarLong(in) - 1;
+		}
+		for (int i = 0; i < size; i++) {
+			record.add(moves[i], readVarLong(in) * 1000);
+		}
+		return record;
+	}
+
+	public static GameRecord load(Path file) throws IOException {
+		try (DataInputStream in = new DataInputStream(Files.newInputStream(file))) {
+			return read(in);
+		}
+	}
+
+	public void save(Path file) throws IOException {
+		try (DataOutputStream out = new DataOutputStream(Files.newOutputStream(file))) {
+			write(out);
+		}
+	}
+
+	/**
+	 * Save the record in the directory, with a file name made of the players and the current time.
+	 *
+	 * @return The file the record was saved to
+	 */
+	public Path saveTo(Path directory) throws IOException {
+		Files.createDirectories(directory);
+		String name = black + "_" + white + "_" +
+				LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss")) + "_" +
+				SEQUENCE.incrementAndGet() + FILE_SUFFIX;
+		Path file = directory.resolve(name);
+		save(file);
+		return file;
+	}
+
+	private static void writeVarLong(DataOutput out, long value) throws IOException {
+		while ((value & ~0x7fL) != 0) {
+			out.writeByte((int)((value & 0x7f) | 0x80));
+			value >>>= 7;
+		}
+		out.writeByte((int)value);
+	}
+
+	private static long readVarLong(DataInput in) throws IOException {
+		long value = 0;
+		for (int shift = 0; shift < 64; shift += 7) {
+			byte b = in.readByte();
+			value |= (long)(b & 0x7f) << shift;
+			if ((b & 0x80) == 0) {
+				return value;
+			}
+		}
+		throw new IOException("Malformed game record");
+	}
+
+	@Override
+	public String toString() {
+		StringBuilder sb = new StringBuilder();
+		for (int i = 0; i < size; i++) {
+			if (i > 0) {
+				sb.append(' ');
+			}
+			sb.append(notation(moves[i], boardSize));
+		}
+		return sb.toString();
+	}
+}
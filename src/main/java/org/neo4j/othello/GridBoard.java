@@ -0,0 +1,163 @@
+package org.neo4j.othello;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.TreeSet;
+
+/**
+ * A playing field of any size, kept as one byte per cell. Used for the sizes that
+ * don't fit in a {@link BitBoard}.
+ */
+public class GridBoard extends Board {
+	private static final byte EMPTY = 0;
+	private static final byte BLACK = 1;
+	private static final byte WHITE = 2;
+	private static final int[][] DIRECTIONS = {
+			{1, 0}, {-1, 0}, {0, 1}, {0, -1}, {1, 1}, {-1, 1}, {1, -1}, {-1, -1}
+	};
+
+	private final int size;
+	private final byte[] cells;
+
+	public GridBoard(int size) {
+		this.size = size;
+		this.cells = new byte[size * size];
+		reset();
+	}
+
+	private GridBoard(GridBoard other) {
+		this.size = other.size;
+		this.cells = other.cells.clone();
+	}
+
+	@Override
+	public int getSize() {
+		return size;
+	}
+
+	@Override
+	protected void clear() {
+		Arrays.fill(cells, EMPTY);
+	}
+
+	@Override
+	protected void set(int x, int y, String state) {
+		cells[y * size + x] = state == null ? EMPTY : value(state);
+	}
+
+	@Override
+	public GridBoard copy() {
+		return new GridBoard(this);
+	}
+
+	@Override
+	public String getState(int x, int y) {
+		switch (cells[y * size + x]) {
+		case BLACK: return "X";
+		case WHITE: return "O";
+		default: return null;
+		}
+	}
+
+	@Override
+	public boolean hasLegalMove(String symbol) {
+		byte own = value(symbol);
+		for (int y = 0; y < size; y++) {
+			for (int x = 0; x < size; x++) {
+				if (flips(own, x, y, null) > 0) {
+					return true;
+				}
+			}
+		}
+		return false;
+	}
+
+	@Override
+	public boolean isLegal(String symbol, int x, int y) {
+		return flips(value(symbol), x, y, null) > 0;
+	}
+
+	@Override
+	public Collection<Cell> getLegalMoves(String symbol) {
+		byte own = value(symbol);
+		TreeSet<Cell> moves = new TreeSet<>();
+		for (int y = 0; y < size; y++) {
+			for (int x = 0; x < size; x++) {
+				if (flips(own, x, y, null) > 0) {
+					moves.add(new Cell(y, x, null));
+				}
+			}
+		}
+		return moves;
+	}
+
+	@Override
+	public Collection<Cell> getFlips(String symbol, int x, int y) {
+		List<Cell> flips = new ArrayList<>();
+		flips(value(symbol), x, y, flips);
+		return new TreeSet<>(flips);
+	}
+
+	@Override
+	public int play(String symbol, int x, int y) {
+		byte own = value(symbol);
+		List<Cell> flips = new ArrayList<>();
+		if (flips(own, x, y, flips) == 0) {
+			throw new IllegalArgumentException("Illegal move for " + symbol + " at " + x + "," + y);
+		}
+		cells[y * size + x] = own;
+		for (Cell flip : flips) {
+			cells[flip.getY() * size + flip.getX()] = own;
+		}
+		return flips.size();
+	}
+
+	@Override
+	public int count(String symbol) {
+		byte own = value(symbol);
+		int count = 0;
+		for (byte cell : cells) {
+			if (cell == own) {
+				count++;
+			}
+		}
+		return count;
+	}
+
+	/**
+	 * Count the bricks that own would turn with a brick at x/y, and add them to
+	 * flips unless it is null.
+	 */
+	private int flips(byte own, int x, int y, List<Cell> flips) {
+		if (!inside(x, y) || cells[y * size + x] != EMPTY) {
+			return 0;
+		}
+		byte opponent = own == BLACK ? WHITE : BLACK;
+		int count = 0;
+		for (int[] dir : DIRECTIONS) {
+			int cx = x + dir[0];
+			int cy = y + dir[1];
+			int line = 0;
+			while (inside(cx, cy) && cells[cy * size + cx] == opponent) {
+				cx += dir[0];
+				cy += dir[1];
+				line++;
+			}
+			if (line > 0 && inside(cx, cy) && cells[cy * size + cx] == own) {
+				count += line;
+				if (flips != null) {
+					for (int i = 1; i <= line; i++) {
+						flips.add(new Cell(y + i * dir[1], x + i * dir[0], null));
+					}
+				}
+			}
+		}
+		return count;
+	}
+
+	private static byte value(String symbol) {
+		return "X".equals(symbol) ? BLACK : WHITE;
+	}
+}
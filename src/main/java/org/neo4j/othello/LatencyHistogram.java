@@ -0,0 +1,96 @@
+package org.neo4j.othello;
+
+/**
+ * Histogram of nanosecond latencies with log-linear buckets. Values below 128 ns
+ * are kept exactly and above that every power of two is split into 64 buckets,
+ * so any reported percentile is within 1.6% of the recorded value. Count, sum, min
+ * and max are exact.
+ */
+public class LatencyHistogram {
+	private static final int LINEAR = 128;
+	private static final int SUB_BUCKETS = 64;
+	private static final int BUCKETS = LINEAR + (63 - 6) * SUB_BUCKETS;
+
+	private final long[] counts = new long[BUCKETS];
+	private long count;
+	private long sum;
+	private long min = Long.MAX_VALUE;
+	private long max;
+
+	public synchronized void record(long ns) {
+		long value = Math.max(0, ns);
+		counts[bucket(value)]++;
+		count++;
+		sum += value;
+		min = Math.min(min, value);
+		max = Math.max(max, value);
+	}
+
+	public synchronized void add(LatencyHistogram other) {
+		synchronized (other) {
+			for (int i = 0; i < BUCKETS; i++) {
+				counts[i] += other.counts[i];
+			}
+			count += other.count;
+			sum += other.sum;
+			min = Math.min(min, other.min);
+			max = Math.max(max, other.max);
+		}
+	}
+
+	public synchronized long getCount() {
+		return count;
+	}
+
+	public synchronized long getTotalNs() {
+		return sum;
+	}
+
+	public synchronized long getMinNs() {
+		return count == 0 ? 0 : min;
+	}
+
+	public synchronized long getMaxNs() {
+		return max;
+	}
+
+	public synchronized double getMeanNs() {
+		return count == 0 ? 0 : (double)sum / count;
+	}
+
+	/**
+	 * @param percentile 0-100
+	 * @return The value at the percentile, or 0 if nothing was recorded
+	 */
+	public synchronized long getPercentileNs(double percentile) {
+		if (count == 0) {
+			return 0;
+		}
+		long rank = Math.max(1, (long)Math.ceil(percentile / 100.0 * count));
+		long seen = 0;
+		for (int i = 0; i < BUCKETS; i++) {
+			seen += counts[i];
+			if (seen >= rank) {
+				return Math.min(max, Math.max(min, highestValue(i)));
+			}
+		}
+		return max;
+	}
+
+	private static int bucket(long value) {
+		if (value < LINEAR) {
+			return (int)value;
+		}
+		int shift = 63 - Long.numberOfLeadingZeros(value) - 6;
+		return LINEAR + (shift - 1) * SUB_BUCKETS + (int)((value >>> shift) - SUB_BUCKETS);
+	}
+
+	private static long highestValue(int bucket) {
+		if (bucket < LINEAR) {
+			return bucket;
+		}
+		int shift = (bucket - LINEAR) / SUB_BUCKETS + 1;
+		long mantissa = (bucket - LINEAR) % SUB_BUCKETS + SUB_BUCKETS;
+		return ((mantissa + 1) << shift) - 1;
+	}
+}
@@ -0,0 +1,332 @@
+package org.neo4j.othello;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+
+/**
+ * One game between two players on one database. The frame is optional, without
+ * it the game runs headless and moves are made as fast as the players can make them.
+ *
+ * The graph is verified right after each move, before the next player's query, so
+ * that the read doesn't count on the server time of that query. Showing the move and
+ * publishing it runs on a virtual thread while the next player's turn starts, and is
+ * waited for before the board or the record change again.
+ */
+public class Match {
+	private static final Executor AFTER_MOVE = Executors.newThreadPerTaskExecutor(
+			Thread.ofVirtual().name("after-move-", 0).factory());
+
+	private final PlayerWrapper[] players;
+	private final DBConnection db;
+	private final GameFrame frame;
+	private final long timeLimitS;
+	private final boolean verify;
+	private final int warmUpRuns;
+	private final GameRecord record;
+	private Spectators spectators;
+	private GameJournal journal;
+	private GameJournal.JournaledGame resumed;
+	private int journalNumber;
+	private CompletableFuture<Void> afterMove = CompletableFuture.completedFuture(null);
+
+	/**
+	 * @param warmUpRuns The number of times the query of each player is run on scratch
+	 *                   positions before the game, see {@link DBConnection#warmUp}
+	 */
+	public Match(PlayerWrapper black, PlayerWrapper white, DBConnection db, GameFrame frame, long timeLimitS,
+			boolean verify, int warmUpRuns) {
+		this.players = new PlayerWrapper[] { black, white };
+		this.db = db;
+		this.frame = frame;
+		this.timeLimitS = timeLimitS;
+		this.verify = verify;
+		this.warmUpRuns = warmUpRuns;
+		this.record = new GameRecord(black.getName(), white.getName(), db.getSize());
+	}
+
+	/**
+	 * @param spectators Where the events of the game are published, or null
+	 */
+	public void setSpectators(Spectators spectators) {
+		this.spectators = spectators;
+	}
+
+	/**
+	 * @param journal Where the moves of the game are journaled, or null
+	 */
+	public void setJournal(GameJournal journal) {
+		this.journal = journal;
+	}
+
+	/**
+	 * Continue an unfinished game from a journal instead of starting a new one. The
+	 * board of the connection must have the size of the game.
+	 */
+	public void resume(GameJournal.JournaledGame game) {
+		if (game.getRecord().getBoardSize() != db.getSize()) {
+			throw new IllegalArgumentException("The game was played on a " + game.getRecord().getBoardSize() +
+					"x" + game.getRecord().getBoardSize() + " board");
+		}
+		this.resumed = game;
+	}
+
+	public GameRecord getRecord() {
+		return record;
+	}
+
+	public PlayerWrapper[] getPlayers() {
+		return players;
+	}
+
+	public PlayerWrapper getOpponent(PlayerWrapper player) {
+		return players[0] == player ? players[1] : players[0];
+	}
+
+	private boolean isRunning() {
+		return frame == null || frame.isVisible();
+	}
+
+	public MatchResult play() {
+		return play(true);
+	}
+
+	/**
+	 * @param setupGrid false if the grid has already been set up for this game, e.g.
+	 *                  while the frame was being created
+	 */
+	public MatchResult play(boolean setupGrid) {
+		try {
+			if (setupGrid) {
+				db.setupGrid();
+			}
+			int skippedMoved = resumed == null ? 0 : replay(resumed.getRecord());
+			int turn = record.size() % 2;
+			for (PlayerWrapper player : players) {
+				if (!player.isHuman() && !player.isNative()) {
+					db.warmUp(player, warmUpRuns, player.getTimeout(timeLimitS));
+				}
+			}
+			if (frame != null) {
+				frame.update(db.getState());
+				for (PlayerWrapper player : players) {
+					frame.setClock(player);
+				}
+			}
+			if (spectators != null) {
+				spectators.publish(getGameId(), "start", event());
+			}
+			if (journal != null) {
+				journalNumber = resumed != null ? resumed.getNumber() :
+						journal.start(players[0].getName(), players[1].getName(), getGameId(), db.getSize());
+			}
+
+			while (isRunning()) {
+				PlayerWrapper player = players[turn];
+				turn = 1 - turn;
+				if (frame != null) {
+					frame.setPlayer(player);
+				}
+				long beforeLegality = System.nanoTime();
+				boolean movePossible = db.isAnyMovePossible(player);
+				player.record(Phase.LEGALITY, System.nanoTime() - beforeLegality);
+				if(!movePossible) {
+					awaitAfterMove();
+					if (++skippedMoved >= 2) {
+						return gameOver();
+					}
+					record.addPass();
+					if (journal != null) {
+						journal.move(journalNumber, GameRecord.PASS, 0);
+					}
+					if (spectators != null) {
+						Map<String, Object> event = event();
+						event.put("ply", record.size());
+						event.put("player", player.getName());
+						event.put("symbol", player.getSymbol());
+						spectators.publish(getGameId(), "pass", event);
+					}
+					continue;
+				}
+				skippedMoved = 0;
+
+				Cell requested = player.tick(db, frame, timeLimitS);
+				if (requested != null) {
+					awaitAfterMove();
+					Move move = db.makeMove(player, requested);
+					Cell placed = move.getPlaced();
+					long timeNs = player.getTimestampsNs().get(player.getTimestampsNs().size() - 1);
+					record.addMove(placed.getX(), placed.getY(), timeNs);
+					if (journal != null) {
+						journal.move(journalNumber, placed.getY() * db.getSize() + placed.getX(), timeNs);
+					}
+					if (verify) {
+						long beforeRead = System.nanoTime();
+						db.verifyBoard();
+						player.record(Phase.STATE_READ, System.nanoTime() - beforeRead);
+					}
+					afterMove = CompletableFuture.runAsync(() -> afterMove(player, move), AFTER_MOVE);
+				}
+			}
+			awaitAfterMove();
+			return result(MatchResult.Outcome.ABORTED, null, null);
+		} catch (IllegalMoveException e) {
+			return result(MatchResult.Outcome.ILLEGAL_MOVE, getOpponent(e.getPlayer()), e);
+		} catch (TimeLimitException e) {
+			return result(MatchResult.Outcome.TIME_LIMIT, getOpponent(e.getPlayer()), e);
+		} catch (Throwable t) {
+			return result(MatchResult.Outcome.FAILURE, null, t);
+		}
+	}
+
+	/**
+	 * Show and publish a move that has been made. This runs while the next player's
+	 * query runs, and the board and the record don't change until it is done.
+	 */
+	private void afterMove(PlayerWrapper player, Move move) {
+		if (frame != null) {
+			long beforeUpdate = System.nanoTime();
+			frame.apply(move);
+			frame.setClock(player);
+			player.record(Phase.GUI, System.nanoTime() - beforeUpdate);
+		}
+		if (spectators != null) {
+			publishMove(player, move);
+		}
+	}
+
+	/**
+	 * Wait for the work after the last move to be done.
+	 *
+	 * @throws RuntimeException if it failed
+	 */
+	private void awaitAfterMove() {
+		try {
+			afterMove.join();
+		} catch (CompletionException e) {
+			if (e.getCause() instanceof RuntimeException cause) {
+				throw cause;
+			}
+			throw e;
+		}
+	}
+
+	/**
+	 * Set the graph, the board and the record to where a game was left, and take the
+	 * time of the moves made from the clocks of the players.
+	 *
+	 * @return The number of passes in a row at the end of the moves
+	 */
+	private int replay(GameRecord moves) {
+		db.loadPosition(moves.positionAt(moves.size()));
+		int size = db.getSize();
+		int passes = 0;
+		for (int ply = 0; ply < moves.size(); ply++) {
+			int move = moves.getMove(ply);
+			if (move == GameRecord.PASS) {
+				record.addPass();
+				passes++;
+			} else {
+				record.addMove(move % size, move / size, moves.getTimeNs(ply));
+				passes = 0;
+				Clock clock = players[ply % 2].getClock();
+				if (clock != null) {
+					clock.charge(moves.getTimeNs(ply));
+				}
+			}
+		}
+		return passes;
+	}
+
+	private MatchResult gameOver() throws IllegalMoveException {
+		String winningSymbol = db.getWinner();
+		for (PlayerWrapper p : players) {
+			if (p.getSymbol().equals(winningSymbol)) {
+				return result(MatchResult.Outcome.WIN, p, null);
+			}
+		}
+		return result(MatchResult.Outcome.DRAW, null, null);
+	}
+
+	private MatchResult result(MatchResult.Outcome outcome, PlayerWrapper winner, Throwable cause) {
+		// Also when the game ended by a failure, the last move is shown and published before the end
+		try {
+			awaitAfterMove();
+		} catch (RuntimeException e) {
+			if (cause == null) {
+				outcome = MatchResult.Outcome.FAILURE;
+				winner = null;
+				cause = e;
+			} else if (e != cause) {
+				cause.addSuppressed(e);
+			}
+		}
+		record.setOutcome(outcome.name());
+		MatchResult result = new MatchResult(outcome, winner, db.getBoard().copy(), record, cause);
+		// A game that failed or was aborted is left unfinished in the journal, so that it can be resumed
+		if (journal != null && journalNumber > 0 && outcome != MatchResult.Outcome.FAILURE &&
+				outcome != MatchResult.Outcome.ABORTED) {
+			journal.end(journalNumber, result);
+		}
+		if (spectators != null) {
+			Map<String, Object> event = event();
+			event.put("outcome", outcome.name());
+			event.put("winner", winner == null ? null : winner.getName());
+			event.put("message", result.getMessage());
+			spectators.publish(getGameId(), "end", event);
+		}
+		return result;
+	}
+
+	private void publishMove(PlayerWrapper player, Move move) {
+		int size = db.getSize();
+		Cell placed = move.getPlaced();
+		List<List<Integer>> flips = new ArrayList<>();
+		for (Cell cell : move.getFlipped()) {
+			flips.add(List.of(cell.getX(), cell.getY()));
+		}
+		Map<String, Object> event = event();
+		event.put("ply", record.size());
+		event.put("player", player.getName());
+		event.put("symbol", player.getSymbol());
+		event.put("x", placed.getX());
+		event.put("y", placed.getY());
+		event.put("notation", GameRecord.notation(placed.getY() * size + placed.getX(), size));
+		event.put("flips", flips);
+		event.put("queryMs", record.getTimeNs(record.size() - 1) / 1_000_000.0);
+		event.put("clockMs", player.getClock() == null ? null : player.getClock().getRemainingNs() / 1_000_000);
+		spectators.publish(getGameId(), "move", event);
+	}
+
+	/**
+	 * The fields every event has: the game, the players and the board.
+	 */
+	private Map<String, Object> event() {
+		Board board = db.getBoard();
+		StringBuilder cells = new StringBuilder();
+		for (int y = 0; y < board.getSize(); y++) {
+			for (int x = 0; x < board.getSize(); x++) {
+				String state = board.getState(x, y);
+				cells.append(state == null ? "." : state);
+			}
+		}
+		Map<String, Object> event = new LinkedHashMap<>();
+		event.put("game", getGameId());
+		event.put("black", players[0].getName());
+		event.put("white", players[1].getName());
+		event.put("size", board.getSize());
+		event.put("board", cells.toString());
+		event.put("blackBricks", board.count("X"));
+		event.put("whiteBricks", board.count("O"));
+		return event;
+	}
+
+	private String getGameId() {
+		return db.getGame() == null ? db.getDatabaseName() : db.getDatabaseName() + "/" + db.getGame();
+	}
+}
@@ -0,0 +1,82 @@
+package org.neo4j.othello;
+
+public class MatchResult {
+	public enum Outcome {
+		WIN,
+		DRAW,
+		ILLEGAL_MOVE,
+		TIME_LIMIT,
+		FAILURE,
+		ABORTED
+	}
+
+	private final Outcome outcome;
+	private final PlayerWrapper winner;
+	private final Board board;
+	private final GameRecord record;
+	private final Throwable cause;
+	private final String message;
+
+	public MatchResult(Outcome outcome, PlayerWrapper winner, Board board, GameRecord record, Throwable cause) {
+		this(outcome, winner, board, record, cause, null);
+	}
+
+	/**
+	 * The result of a game that was played before, e.g. one read from a journal, with
+	 * the message it ended with instead of the exception.
+	 */
+	public MatchResult(Outcome outcome, PlayerWrapper winner, Board board, GameRecord record, String message) {
+		this(outcome, winner, board, record, null, message);
+	}
+
+	private MatchResult(Outcome outcome, PlayerWrapper winner, Board board, GameRecord record, Throwable cause,
+			String message) {
+		this.outcome = outcome;
+		this.winner = winner;
+		this.board = board;
+		this.record = record;
+		this.cause = cause;
+		this.message = message;
+	}
+
+	public Outcome getOutcome() {
+		return outcome;
+	}
+
+	/**
+	 * @return The winning player, or null for a draw, a failure or an aborted game
+	 */
+	public PlayerWrapper getWinner() {
+		return winner;
+	}
+
+	/**
+	 * @return The board as it was when the game ended
+	 */
+	public Board getBoard() {
+		return board;
+	}
+
+	public GameRecord getRecord() {
+		return record;
+	}
+
+	/**
+	 * @return The exception that ended the game for ILLEGAL_MOVE, TIME_LIMIT and FAILURE, otherwise null
+	 */
+	public Throwable getCause() {
+		return cause;
+	}
+
+	public String getMessage() {
+		if (message != null) {
+			return message;
+		}
+		switch (outcome) {
+		case WIN: return winner.getName() + " (" + winner.getColor() + ") won the game";
+		case DRAW: return "There is no winner, it's a draw";
+		case ABORTED: return "The game was aborted";
+		default: return cause.getMessage();
+		}
+	}
+}
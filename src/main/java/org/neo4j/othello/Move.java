@@ -0,0 +1,34 @@
+package org.neo4j.othello;
+
+import java.util.List;
+
+/**
+ * The change to the board caused by one move: the cell where the brick was
+ * placed and the cells that were turned over.
+ */
+public class Move {
+	private final Cell placed;
+	private final List<Cell> flipped;
+
+	public Move(Cell placed, List<Cell> flipped) {
+		this.placed = placed;
+		this.flipped = flipped;
+	}
+
+	public Cell getPlaced() {
+		return placed;
+	}
+
+	public List<Cell> getFlipped() {
+		return flipped;
+	}
+
+	public String getSymbol() {
+		return placed.getState();
+	}
+
+	@Override
+	public String toString() {
+		return getSymbol() + " at " + placed.getX() + "," + placed.getY() + " turning " + flipped.size();
+	}
+}
@@ -0,0 +1,219 @@
+package org.neo4j.othello;
+
+import java.io.PrintStream;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Random;
+import java.util.regex.Pattern;
+
+/**
+ * Bounded cache of the moves chosen by deterministic players, so that a position
+ * that comes up again (like the openings in a tournament) is answered without
+ * running the query. Entries are keyed by the board, the side to move and the
+ * player class, hashed Zobrist style, and the least recently used entry is
+ * evicted when the cache is full. For players that are symmetric the board is
+ * first turned into the smallest of its eight symmetries, so that all of them
+ * share an entry. Can be shared between games running at the same time.
+ */
+public class MoveCache {
+	/**
+	 * Queries that use any of these could choose differently in the same position
+	 */
+	private static final Pattern NON_DETERMINISTIC = Pattern.compile(
+			"\\b(rand|random\\w*|shuffle|timestamp|datetime|localdatetime|date|time|localtime)\\s*\\(" +
+			"|\\$(apiKey|x|y)\\b|\\b(genai|openai|ai|apoc)\\.",
+			Pattern.CASE_INSENSITIVE);
+	private static final Pattern LIMIT = Pattern.compile("\\bLIMIT\\b", Pattern.CASE_INSENSITIVE);
+	private static final Pattern ORDER_BY = Pattern.compile("\\bORDER\\s+BY\\b", Pattern.CASE_INSENSITIVE);
+	private static final int SYMMETRIES = 8;
+	private static final long[][] ZOBRIST = new long[2][BitBoard.SIZE * BitBoard.SIZE];
+	private static final long WHITE_TO_MOVE;
+
+	static {
+		Random random = new Random(0x07e110);
+		for (long[] table : ZOBRIST) {
+			for (int i = 0; i < table.length; i++) {
+				table[i] = random.nextLong();
+			}
+		}
+		WHITE_TO_MOVE = random.nextLong();
+	}
+
+	private final int capacity;
+	private final Map<Key, Integer> moves;
+	private long hits;
+	private long misses;
+	private long evictions;
+
+	public MoveCache(int capacity) {
+		this.capacity = capacity;
+		this.moves = new LinkedHashMap<>(16, 0.75f, true) {
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<Key, Integer> eldest) {
+				if (size() > MoveCache.this.capacity) {
+					evictions++;
+					return true;
+				}
+				return false;
+			}
+		};
+	}
+
+	/**
+	 * Only moves on the standard 8x8 board are cached, the other sizes are there to
+	 * measure the queries.
+	 */
+	public static boolean isCached(PlayerWrapper player, Board board) {
+		return board instanceof BitBoard && player.isDeterministic();
+	}
+
+	/**
+	 * A player is cached if it is marked as {@link Deterministic}, or if its query uses
+	 * nothing that could make it choose differently in the same position (random
+	 * functions, the time, the API key, AI and APOC procedures, the cell chosen by a
+	 * human, or a LIMIT without an ORDER BY, which returns whichever row comes first).
+	 * This is decided once per player, see {@link PlayerWrapper#isDeterministic()}.
+	 */
+	static boolean isDeterministic(Player player) {
+		if (player instanceof Human || player instanceof NativePlayer) {
+			return false;
+		}
+		if (player instanceof Deterministic) {
+			return true;
+		}
+		String cypher = player.getCypherForRound();
+		return !NON_DETERMINISTIC.matcher(cypher).find() &&
+				!(LIMIT.matcher(cypher).find() && !ORDER_BY.matcher(cypher).find());
+	}
+
+	private static boolean isSymmetric(PlayerWrapper player) {
+		return player.getPlayer() instanceof Deterministic d && d.isSymmetric();
+	}
+
+	/**
+	 * @return The cached move of the player in the position, or null
+	 */
+	public synchronized Cell get(PlayerWrapper player, Board board) {
+		Lookup lookup = new Lookup(player, board);
+		Integer index = moves.get(lookup.key);
+		if (index == null) {
+			misses++;
+			return null;
+		}
+		hits++;
+		int original = Long.numberOfTrailingZeros(inverse(1L << index, lookup.symmetry));
+		return new Cell(original / BitBoard.SIZE, original % BitBoard.SIZE, null);
+	}
+
+	public synchronized void put(PlayerWrapper player, Board board, Cell move) {
+		Lookup lookup = new Lookup(player, board);
+		int index = Long.numberOfTrailingZeros(transform(BitBoard.bit(move.getX(), move.getY()), lookup.symmetry));
+		moves.put(lookup.key, index);
+	}
+
+	public synchronized long getHits() {
+		return hits;
+	}
+
+	public synchronized long getMisses() {
+		return misses;
+	}
+
+	public synchronized void print(PrintStream out) {
+		long lookups = hits + misses;
+		out.println(String.format(Locale.ROOT, "Move cache: %d hits of %d lookups (%.1f%%), %d of %d entries used, %d evicted",
+				hits, lookups, lookups == 0 ? 0.0 : 100.0 * hits / lookups, moves.size(), capacity, evictions));
+	}
+
+	/**
+	 * The key of a position for a player, and the symmetry that turned the board into
+	 * the one in the key.
+	 */
+	private static class Lookup {
+		private final Key key;
+		private final int symmetry;
+
+		private Lookup(PlayerWrapper player, Board position) {
+			BitBoard board = (BitBoard)position;
+			int best = 0;
+			long black = board.getBlack();
+			long white = board.getWhite();
+			if (isSymmetric(player)) {
+				for (int s = 1; s < SYMMETRIES; s++) {
+					long b = transform(board.getBlack(), s);
+					long w = transform(board.getWhite(), s);
+					int c = Long.compareUnsigned(b, black);
+					if (c < 0 || (c == 0 && Long.compareUnsigned(w, white) < 0)) {
+						best = s;
+						black = b;
+						white = w;
+					}
+				}
+			}
+			this.key = new Key(player.getPlayer().getClass().getName(), player.getSymbol(), black, white);
+			this.symmetry = best;
+		}
+	}
+
+	private record Key(String player, String symbol, long black, long white) {
+		@Override
+		public int hashCode() {
+			long hash = "O".equals(symbol) ? WHITE_TO_MOVE : 0;
+			for (long b = black; b != 0; b &= b - 1) {
+				hash ^= ZOBRIST[0][Long.numberOfTrailingZeros(b)];
+			}
+			for (long w = white; w != 0; w &= w - 1) {
+				hash ^= ZOBRIST[1][Long.numberOfTrailingZeros(w)];
+			}
+			return Long.hashCode(hash) * 31 + player.hashCode();
+		}
+	}
+
+	/**
+	 * One of the eight symmetries of the board: bit 2 transposes, bit 1 flips upside
+	 * down and bit 0 mirrors left to right, in that order.
+	 */
+	static long transform(long b, int symmetry) {
+		if ((symmetry & 4) != 0) {
+			b = transpose(b);
+		}
+		if ((symmetry & 2) != 0) {
+			b = Long.reverseBytes(b);
+		}
+		if ((symmetry & 1) != 0) {
+			b = mirror(b);
+		}
+		return b;
+	}
+
+	static long inverse(long b, int symmetry) {
+		if ((symmetry & 1) != 0) {
+			b = mirror(b);
+		}
+		if ((symmetry & 2) != 0) {
+			b = Long.reverseBytes(b);
+		}
+		if ((symmetry & 4) != 0) {
+			b = transpose(b);
+		}
+		return b;
+	}
+
+	private static long mirror(long b) {
+		b = ((b >>> 1) & 0x5555555555555555L) | ((b & 0x5555555555555555L) << 1);
+		b = ((b >>> 2) & 0x3333333333333333L) | ((b & 0x3333333333333333L) << 2);
+		return ((b >>> 4) & 0x0f0f0f0f0f0f0f0fL) | ((b & 0x0f0f0f0f0f0f0f0fL) << 4);
+	}
+
+	private static long transpose(long b) {
+		long t = 0x0f0f0f0f00000000L & (b ^ (b << 28));
+		b ^= t ^ (t >>> 28);
+		t = 0x3333000033330000L & (b ^ (b << 14));
+		b ^= t ^ (t >>> 14);
+		t = 0x5500550055005500L & (b ^ (b << 7));
+		return b ^ t ^ (t >>> 7);
+	}
+}
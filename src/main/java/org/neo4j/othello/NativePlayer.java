@@ -0,0 +1,27 @@
+package org.neo4j.othello;
+
+import java.time.Duration;
+
+/**
+ * A player that chooses its moves in Java, in the same process as the game, instead
+ * of with a Cypher query. Its moves are validated and written to the graph like the
+ * moves of any other player, so a Cypher opponent sees the real board. The time it
+ * takes to choose a move is its query time.
+ */
+public interface NativePlayer extends Player {
+	/**
+	 * @param board   The position, which may be changed since it is a copy
+	 * @param symbol  The symbol of the player, "X" or "O"
+	 * @param timeout The time the player has for the move, or null if there is no limit
+	 * @return The cell to put a brick on, which must be a legal move
+	 */
+	Cell chooseMove(Board board, String symbol, Duration timeout);
+
+	/**
+	 * A native player has no query.
+	 */
+	@Override
+	default String getCypherForRound() {
+		return null;
+	}
+}
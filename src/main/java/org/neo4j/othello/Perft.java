@@ -0,0 +1,140 @@
+package org.neo4j.othello;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Counts the positions reached by every sequence of legal moves from the opening,
+ * to each depth up to a given one (perft). It is done with the local board, and
+ * with a database also with queries on the graph: one that finds the legal moves and
+ * the cells they turn, and writes that make and take back every move. The counts
+ * must agree, and the positions per second are a baseline for the speed of the
+ * board and of the graph.
+ *
+ * A player that can't move passes, which counts as a move, and a finished game
+ * counts as one position at any depth.
+ */
+public class Perft {
+	public static void main(String[] args) {
+		if (args.length < 1) {
+			System.err.println("Incorrect number of arguments");
+			System.err.println("Usage: mvn exec:java -Dexec.mainClass=org.neo4j.othello.Perft -Dexec.args=\"DEPTH [DB_URI DB_USER DB_PWD DB_NAME]\"");
+			System.err.println("");
+			return;
+		}
+
+		int depth;
+		try {
+			depth = Integer.parseInt(args[0]);
+		} catch (Throwable t) {
+			System.err.println("Incorrect format of depth, should be an integer, but was: " + args[0]);
+			return;
+		}
+
+		int size = Integer.getInteger(Game.SIZE_PROPERTY, Board.DEFAULT_SIZE);
+		try {
+			Board.checkSize(size);
+		} catch (IllegalArgumentException e) {
+			System.err.println(e.getMessage());
+			return;
+		}
+
+		System.out.println(String.format(Locale.ROOT, "%-6s %14s %14s %14s %14s %6s", "Depth", "Positions",
+				"Local pos/s", "Graph", "Graph pos/s", "Agree"));
+
+		if (args.length < 5) {
+			for (int d = 1; d <= depth; d++) {
+				long before = System.nanoTime();
+				long positions = perft(Board.create(size), "X", d);
+				System.out.println(String.format(Locale.ROOT, "%-6d %14d %14.0f", d, positions,
+						perSecond(positions, System.nanoTime() - before)));
+			}
+			return;
+		}
+
+		try (DBConnection db = new DBConnection(args[1], args[2], args[3], args[4], null,
+				System.getProperty(Game.GAME_PROPERTY))) {
+			db.setSize(size);
+			db.setupGrid();
+			boolean agree = true;
+			for (int d = 1; d <= depth; d++) {
+				long before = System.nanoTime();
+				long positions = perft(Board.create(size), "X", d);
+				long localNs = System.nanoTime() - before;
+
+				before = System.nanoTime();
+				long graphPositions = perft(db, "X", d);
+				long graphNs = System.nanoTime() - before;
+
+				agree &= positions == graphPositions;
+				System.out.println(String.format(Locale.ROOT, "%-6d %14d %14.0f %14d %14.0f %6s", d, positions,
+						perSecond(positions, localNs), graphPositions, perSecond(graphPositions, graphNs),
+						positions == graphPositions ? "yes" : "NO"));
+			}
+			if (!agree) {
+				System.out.println("The graph and the board disagree");
+			}
+		} catch (Throwable t) {
+			t.printStackTrace();
+		}
+	}
+
+	/**
+	 * Perft with the local board.
+	 */
+	static long perft(Board board, String symbol, int depth) {
+		if (depth == 0) {
+			return 1;
+		}
+		String other = Board.other(symbol);
+		if (!board.hasLegalMove(symbol)) {
+			return board.hasLegalMove(other) ? perft(board, other, depth - 1) : 1;
+		}
+		long positions = 0;
+		for (Cell move : board.getLegalMoves(symbol)) {
+			Board next = board.copy();
+			next.play(symbol, move.getX(), move.getY());
+			positions += perft(next, other, depth - 1);
+		}
+		return positions;
+	}
+
+	/**
+	 * Perft with queries on the graph. Every move is written and then taken back, so
+	 * the graph is left as it was.
+	 */
+	static long perft(DBConnection db, String symbol, int depth) {
+		if (depth == 0) {
+			return 1;
+		}
+		String other = Board.other(symbol);
+		List<Move> moves = db.findLegalMoves(symbol);
+		if (moves.isEmpty()) {
+			return db.findLegalMoves(other).isEmpty() ? 1 : perft(db, other, depth - 1);
+		}
+		long positions = 0;
+		for (Move move : moves) {
+			db.setStates(cells(move, symbol, symbol));
+			positions += perft(db, other, depth - 1);
+			db.setStates(cells(move, null, other));
+		}
+		return positions;
+	}
+
+	/**
+	 * The cells of a move, with the state to give the placed brick and the turned ones.
+	 */
+	private static List<Cell> cells(Move move, String placed, String flipped) {
+		List<Cell> cells = new ArrayList<>();
+		cells.add(new Cell(move.getPlaced().getRow(), move.getPlaced().getColumn(), placed));
+		for (Cell cell : move.getFlipped()) {
+			cells.add(new Cell(cell.getRow(), cell.getColumn(), flipped));
+		}
+		return cells;
+	}
+
+	private static double perSecond(long positions, long ns) {
+		return positions * 1_000_000_000.0 / Math.max(1, ns);
+	}
+}
@@ -0,0 +1,25 @@
+package org.neo4j.othello;
+
+/**
+ * The parts of a turn that are timed separately, and the warm-up before the game.
+ */
+public enum Phase {
+	WARMUP("Warm-up"),
+	LEGALITY("Legality check"),
+	QUERY("Player query"),
+	OVERHEAD("Query overhead"),
+	VALIDATION("Validation"),
+	WRITE("Write"),
+	STATE_READ("State read"),
+	GUI("GUI update");
+
+	private final String description;
+
+	Phase(String description) {
+		this.description = description;
+	}
+
+	public String getDescription() {
+		return description;
+	}
+}
@@ -0,0 +1,31 @@
+package org.neo4j.othello;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * One latency histogram per phase of a turn, for one player.
+ */
+public class PhaseTimings {
+	private final Map<Phase, LatencyHistogram> histograms = new EnumMap<>(Phase.class);
+
+	public PhaseTimings() {
+		for (Phase phase : Phase.values()) {
+			histograms.put(phase, new LatencyHistogram());
+		}
+	}
+
+	public void record(Phase phase, long ns) {
+		histograms.get(phase).record(ns);
+	}
+
+	public LatencyHistogram get(Phase phase) {
+		return histograms.get(phase);
+	}
+
+	public void add(PhaseTimings other) {
+		for (Phase phase : Phase.values()) {
+			histograms.get(phase).add(other.get(phase));
+		}
+	}
+}
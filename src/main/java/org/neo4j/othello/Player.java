@@ -7,6 +7,8 @@ public interface Player {
 	 * 
 	 * $symbol: The symbol used by this player (either "X" for Black or "O" for White) [String]
 	 * $apiKey: An API key for OpenAI that can be used if one would want [String]
+	 * $game: The id of the game when several games share the database, otherwise null [String]
+	 * $size: The number of cells on each side of the board, 8 unless another size is chosen [int]
 	 * 
 	 * The graph consists of a grid of cells (nodes with the label :Cell) where
 	 * each cell is connected to all its neighbors (horizontally, vertically and
@@ -26,6 +28,14 @@ public interface Player {
 	 * 
 	 * The query will run as a Read only query.
 	 * 
+	 * When several games share the database, every :Cell label in the query is
+	 * replaced by :Cell&Game_<id> (or :Cell:Game_<id> where labels are joined with
+	 * colons) before it is run, so the query only sees the cells of its own game.
+	 * String literals and comments are left as they are.
+	 * 
+	 * A player whose query always chooses the same cell in the same position can
+	 * implement {@link Deterministic}, so that its moves can be cached.
+	 * 
 	 * The database used will be an Aura instance with all procedures and functions the you would
 	 * normally find on Aura enabled.
 	 * 
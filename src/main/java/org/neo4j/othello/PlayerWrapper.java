@@ -1,7 +1,8 @@
 package org.neo4j.othello;
 
+import java.time.Duration;
 import java.util.ArrayList;
-import java.util.Collection;
+import java.util.List;
 import java.util.concurrent.TimeUnit;
 
 public class PlayerWrapper {
@@ -9,7 +10,10 @@ public class PlayerWrapper {
 	private final Player player;
 	private final String symbol;
 	private final ArrayList<Long> timestampsNs = new ArrayList<>();
-	private boolean firstMove = true;
+	private final PhaseTimings timings = new PhaseTimings();
+	private final List<QueryProfile> profiles = new ArrayList<>();
+	private Clock clock;
+	private Boolean deterministic;
 
 	public PlayerWrapper(String name, Player player, String symbol) {
 		this.name = name;
@@ -33,40 +37,142 @@ public class PlayerWrapper {
 		return symbol;
 	}
 
+	public Player getPlayer() {
+		return player;
+	}
+
+	public boolean isHuman() {
+		return player instanceof Human;
+	}
+
+	/**
+	 * @return true if the player chooses its moves in Java instead of with a query
+	 */
+	public boolean isNative() {
+		return player instanceof NativePlayer;
+	}
+
 	public ArrayList<Long> getTimestampsNs() {
 		return timestampsNs;
 	}
 
-	public Collection<Cell> tick(DBConnection db, GameFrame frame, long limit)
-			throws IllegalMoveException, TimeLimitException {
-		try {
-			int x = 0; // Only for human players
-			int y = 0; // Only for human players
-			if (player instanceof Human) {
-				GameFrame.HumanSelection selection = frame.waitForHumanMove();
-				x = selection.getX();
-				y = selection.getY();
-			} else {
-				frame.waitForNextTick();
+	public PhaseTimings getTimings() {
+		return timings;
+	}
+
+	public void record(Phase phase, long ns) {
+		timings.record(phase, ns);
+	}
+
+	public List<QueryProfile> getProfiles() {
+		return profiles;
+	}
+
+	public void addProfile(QueryProfile profile) {
+		profiles.add(profile);
+	}
+
+	/**
+	 * @return true if the moves of the player can be cached, decided from its query
+	 *         the first time it is asked, see {@link MoveCache#isDeterministic}
+	 */
+	public boolean isDeterministic() {
+		if (deterministic == null) {
+			deterministic = MoveCache.isDeterministic(player);
+		}
+		return deterministic;
+	}
+
+	/**
+	 * @return The clock of the player, or null if there is no clock
+	 */
+	public Clock getClock() {
+		return clock;
+	}
+
+	public void setClock(Clock clock) {
+		this.clock = clock;
+	}
+
+	/**
+	 * The timeout of the next query: the time limit per move, or what is left on the
+	 * clock if that is less. null if there is neither.
+	 */
+	public Duration getTimeout(long limit) {
+		Duration timeout = limit > 0 ? Duration.ofSeconds(limit) : null;
+		if (clock != null) {
+			// Rounded up to whole milliseconds, and never 0 since that would mean no timeout at all
+			long remainingMs = Math.max(1, (clock.getRemainingNs() + 999_999) / 1_000_000);
+			if (timeout == null || remainingMs < timeout.toMillis()) {
+				timeout = Duration.ofMillis(remainingMs);
 			}
-	
-			if (frame.isVisible()) {
-				long beforeTick = System.nanoTime();
-				db.tickPlayer(this, x, y);
-				long time = System.nanoTime() - beforeTick;
-				timestampsNs.add(time);
-				if(!firstMove && limit > 0 && time > TimeUnit.SECONDS.toNanos(limit)) {
-					throw new TimeLimitException(this, TimeUnit.NANOSECONDS.toSeconds(time), limit);
-				}
-				Collection<Cell> state = db.getState();
-				return state;
+		}
+		return timeout;
+	}
+
+	/**
+	 * Wait for the tick, or the selection of a human player, and run the query of the
+	 * player. Only the query is timed, the move is not made.
+	 *
+	 * @return The cell the player wants to play, or null if the frame was closed
+	 */
+	public Cell tick(DBConnection db, GameFrame frame, long limit) throws TimeLimitException {
+		int x = 0; // Only for human players
+		int y = 0; // Only for human players
+		if (player instanceof Human) {
+			GameFrame.HumanSelection selection = frame.waitForHumanMove();
+			x = selection.getX();
+			y = selection.getY();
+		} else if (frame != null) {
+			frame.waitForNextTick();
+		}
+
+		if (frame == null || frame.isVisible()) {
+			Duration timeout = getTimeout(limit);
+			long beforeTick = System.nanoTime();
+			Cell move;
+			try {
+				move = db.requestMove(this, x, y, timeout);
+			} catch (QueryTimeoutException e) {
+				// Stopped by the database, and charged the timeout like a move is charged the time on the server
+				charge(e.getTimeNs());
+				throw timeLimit(e.getTimeNs(), limit);
 			}
-	
-			return null;
+			long totalTime = System.nanoTime() - beforeTick;
+
+			// The player is timed by the database if it can tell, what is left is the network and the driver
+			long time = db.getQueryTimeNs() < 0 ? totalTime : Math.min(db.getQueryTimeNs(), totalTime);
+			timestampsNs.add(time);
+			record(Phase.QUERY, time);
+			record(Phase.OVERHEAD, totalTime - time);
+			if (timeout != null && db.getNetworkAllowanceNs() >= 0 &&
+					totalTime > timeout.toNanos() + db.getNetworkAllowanceNs()) {
+				// So slow, with the network, that the rest of the game can't wait for it
+				charge(Math.max(time, timeout.toNanos()));
+				throw timeLimit(totalTime, limit);
+			}
+			if(!charge(time) || (limit > 0 && time > TimeUnit.SECONDS.toNanos(limit))) {
+				throw timeLimit(time, limit);
+			}
+			return move;
 		}
-		finally {
-			firstMove = false;
+
+		return null;
+	}
+
+	/**
+	 * @return false if the player ran out of time on the clock
+	 */
+	private boolean charge(long timeNs) {
+		return clock == null || clock.charge(timeNs);
+	}
+
+	private TimeLimitException timeLimit(long timeNs, long limit) {
+		long timeS = TimeUnit.NANOSECONDS.toSeconds(timeNs);
+		if (clock != null && clock.isFlagged()) {
+			return new TimeLimitException(this, timeS, clock);
 		}
+		return new TimeLimitException(this, timeS, limit);
 	}
 
 	public String getCypherForRound() {
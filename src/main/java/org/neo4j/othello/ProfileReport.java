@@ -0,0 +1,76 @@
+package org.neo4j.othello;
+
+import java.io.PrintStream;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Summary of the profiles of the player queries: one line per move, and the
+ * operators that were most expensive over all moves, ranked by db hits.
+ */
+public class ProfileReport {
+	private static final int TOP_OPERATORS = 10;
+
+	private final Map<String, List<QueryProfile>> profiles;
+
+	/**
+	 * @param profiles The profiles per player name, in the order they should be reported
+	 */
+	public ProfileReport(Map<String, List<QueryProfile>> profiles) {
+		this.profiles = profiles;
+	}
+
+	public void print(PrintStream out, boolean perMove) {
+		for (Map.Entry<String, List<QueryProfile>> entry : profiles.entrySet()) {
+			out.println("Profile of " + entry.getKey() + " (" + entry.getValue().size() + " queries)");
+			if (perMove) {
+				out.println(String.format(Locale.ROOT, "  %5s %12s %8s %12s %12s", "Move", "DB hits", "Rows",
+						"PC hits", "PC misses"));
+				for (QueryProfile p : entry.getValue()) {
+					out.println(String.format(Locale.ROOT, "  %5d %12d %8d %12d %12d", p.getMove(),
+							p.getDbHits(), p.getRows(), p.getPageCacheHits(), p.getPageCacheMisses()));
+				}
+			}
+
+			out.println(String.format(Locale.ROOT, "  %-28s %14s %12s %12s %12s  %s", "Operator", "DB hits", "Rows",
+					"PC hits", "PC misses", "Details"));
+			aggregate(entry.getValue()).values().stream()
+					.sorted(Comparator.comparingLong((Total t) -> t.dbHits).reversed())
+					.limit(TOP_OPERATORS)
+					.forEach(t -> out.println(String.format(Locale.ROOT, "  %-28s %14d %12d %12d %12d  %s", t.type,
+							t.dbHits, t.rows, t.pageCacheHits, t.pageCacheMisses, t.details)));
+		}
+	}
+
+	private static Map<String, Total> aggregate(List<QueryProfile> profiles) {
+		Map<String, Total> totals = new LinkedHashMap<>();
+		for (QueryProfile profile : profiles) {
+			for (QueryProfile.Operator operator : profile.getOperators()) {
+				Total total = totals.computeIfAbsent(operator.getType() + "\n" + operator.getDetails(),
+						k -> new Total(operator.getType(), operator.getDetails()));
+				total.dbHits += operator.getDbHits();
+				total.rows += operator.getRows();
+				total.pageCacheHits += operator.getPageCacheHits();
+				total.pageCacheMisses += operator.getPageCacheMisses();
+			}
+		}
+		return totals;
+	}
+
+	private static class Total {
+		private final String type;
+		private final String details;
+		private long dbHits;
+		private long rows;
+		private long pageCacheHits;
+		private long pageCacheMisses;
+
+		private Total(String type, String details) {
+			this.type = type;
+			this.details = details;
+		}
+	}
+}
@@ -0,0 +1,99 @@
+package org.neo4j.othello;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * The profile of one player query, with the operators of the plan flattened into
+ * a list in the order they appear in the plan.
+ */
+public class QueryProfile {
+	private final int move;
+	private final List<Operator> operators;
+
+	public QueryProfile(int move, List<Operator> operators) {
+		this.move = move;
+		this.operators = Collections.unmodifiableList(operators);
+	}
+
+	public int getMove() {
+		return move;
+	}
+
+	public List<Operator> getOperators() {
+		return operators;
+	}
+
+	public long getDbHits() {
+		return operators.stream().mapToLong(Operator::getDbHits).sum();
+	}
+
+	public long getPageCacheHits() {
+		return operators.stream().mapToLong(Operator::getPageCacheHits).sum();
+	}
+
+	public long getPageCacheMisses() {
+		return operators.stream().mapToLong(Operator::getPageCacheMisses).sum();
+	}
+
+	/**
+	 * @return The rows produced by the root operator, i.e. returned by the query
+	 */
+	public long getRows() {
+		return operators.get(0).getRows();
+	}
+
+	public static class Operator {
+		private final String type;
+		private final String details;
+		private final long rows;
+		private final long dbHits;
+		private final long pageCacheHits;
+		private final long pageCacheMisses;
+		private final long time;
+
+		public Operator(String operatorType, String details, long rows, long dbHits, long pageCacheHits,
+				long pageCacheMisses, long time) {
+			// Operator types are reported as e.g. "NodeByLabelScan@neo4j"
+			int at = operatorType.indexOf('@');
+			this.type = at < 0 ? operatorType : operatorType.substring(0, at);
+			this.details = details;
+			this.rows = rows;
+			this.dbHits = dbHits;
+			this.pageCacheHits = pageCacheHits;
+			this.pageCacheMisses = pageCacheMisses;
+			this.time = time;
+		}
+
+		public String getType() {
+			return type;
+		}
+
+		public String getDetails() {
+			return details;
+		}
+
+		public long getRows() {
+			return rows;
+		}
+
+		public long getDbHits() {
+			return dbHits;
+		}
+
+		public long getPageCacheHits() {
+			return pageCacheHits;
+		}
+
+		public long getPageCacheMisses() {
+			return pageCacheMisses;
+		}
+
+		/**
+		 * @return The time spent in the operator as reported by the server (0 if not reported)
+		 */
+		public long getTime() {
+			return time;
+		}
+	}
+}
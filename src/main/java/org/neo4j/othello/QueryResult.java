@@ -0,0 +1,60 @@
+package org.neo4j.othello;
+
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+
+import org.neo4j.driver.Value;
+
+/**
+ * The rows returned by a query, with values in the form the driver uses whatever
+ * backend ran the query, and the profile of the query if it was run with PROFILE.
+ */
+public class QueryResult {
+	private final List<Map<String, Value>> rows;
+	private final List<QueryProfile.Operator> operators;
+	private final long serverTimeNs;
+
+	/**
+	 * @param serverTimeNs The time the database took to run the query and stream its
+	 *                     result, without the network, or -1 if it isn't known
+	 */
+	public QueryResult(List<Map<String, Value>> rows, List<QueryProfile.Operator> operators, long serverTimeNs) {
+		this.rows = rows;
+		this.operators = operators;
+		this.serverTimeNs = serverTimeNs;
+	}
+
+	public List<Map<String, Value>> getRows() {
+		return rows;
+	}
+
+	/**
+	 * @throws NoSuchElementException unless there is exactly one row
+	 */
+	public Map<String, Value> single() {
+		if (rows.size() != 1) {
+			throw new NoSuchElementException("Expected a result with a single record, but it had " + rows.size());
+		}
+		return rows.get(0);
+	}
+
+	public boolean hasProfile() {
+		return operators != null;
+	}
+
+	/**
+	 * @return The profiled operators in plan order, or null if the query wasn't profiled
+	 */
+	public List<QueryProfile.Operator> getOperators() {
+		return operators;
+	}
+
+	/**
+	 * @return The time the database took to run the query and stream its result, or -1
+	 *         if it isn't known
+	 */
+	public long getServerTimeNs() {
+		return serverTimeNs;
+	}
+}
@@ -0,0 +1,41 @@
+package org.neo4j.othello;
+
+import java.time.Duration;
+
+/**
+ * Thrown by a backend when a query was stopped because it ran for longer than its timeout.
+ */
+public class QueryTimeoutException extends RuntimeException {
+	private static final long serialVersionUID = 1L;
+
+	private final long timeNs;
+
+	public QueryTimeoutException(long timeNs, Throwable cause) {
+		super("The query was stopped at its timeout of " + Duration.ofNanos(timeNs).toMillis() + " ms", cause);
+
+		this.timeNs = timeNs;
+	}
+
+	/**
+	 * @return The timeout the query was stopped at, which is what it is charged, the
+	 *         same as a query is charged its time on the server rather than its round trip
+	 */
+	public long getTimeNs() {
+		return timeNs;
+	}
+
+	/**
+	 * The exception to throw when a query with a timeout failed: a QueryTimeoutException
+	 * if the database says that the transaction was stopped, by its timeout or by the
+	 * backstop, otherwise the exception itself.
+	 *
+	 * @param stopped If the exception is the one for a transaction that timed out or
+	 *                was terminated
+	 */
+	static RuntimeException of(RuntimeException e, boolean stopped, Duration timeout) {
+		if (stopped && timeout != null) {
+			return new QueryTimeoutException(timeout.toNanos(), e);
+		}
+		return e;
+	}
+}
@@ -0,0 +1,81 @@
+package org.neo4j.othello;
+
+import java.nio.file.Path;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Shows a recorded game and rebuilds any position of it. The position can also be
+ * loaded into a database, and a player's query can be run and profiled against it.
+ */
+public class Replay {
+	public static void main(String[] args) {
+		if (args.length < 1) {
+			System.err.println("Incorrect number of arguments");
+			System.err.println("Usage: mvn exec:java -Dexec.mainClass=org.neo4j.othello.Replay -Dexec.args=\"RECORD_FILE [PLY [DB_URI DB_USER DB_PWD DB_NAME API_KEY [PLAYER_CLASSNAME]]]\"");
+			System.err.println("");
+			return;
+		}
+
+		GameRecord record;
+		try {
+			record = GameRecord.load(Path.of(args[0]));
+		} catch (Throwable t) {
+			System.err.println("Failed to read game record " + args[0] + ": " + t.getMessage());
+			return;
+		}
+
+		System.out.println(record.getBlack() + " (BLACK) vs " + record.getWhite() + " (WHITE): " + record.getOutcome());
+		for (int ply = 0; ply < record.size(); ply++) {
+			System.out.println(String.format(Locale.ROOT, "%3d %s %s %10.3f ms", ply + 1, GameRecord.getSymbol(ply),
+					GameRecord.notation(record.getMove(ply), record.getBoardSize()), record.getTimeNs(ply) / 1_000_000.0));
+		}
+
+		int ply = record.size();
+		if (args.length > 1) {
+			try {
+				ply = Integer.parseInt(args[1]);
+			} catch (Throwable t) {
+				System.err.println("Incorrect format of ply, should be the number of moves made, but was: " + args[1]);
+				return;
+			}
+		}
+		if (ply < 0 || ply > record.size()) {
+			System.err.println("Incorrect ply, should be between 0 and " + record.size() + ", but was: " + ply);
+			return;
+		}
+
+		long beforeReplay = System.nanoTime();
+		Board board = record.positionAt(ply);
+		long replayNs = System.nanoTime() - beforeReplay;
+		String symbol = GameRecord.getSymbol(ply);
+		System.out.println("");
+		System.out.println("Position after " + ply + " moves (rebuilt in " + replayNs / 1000 + " us), " +
+				symbol + " to move:");
+		System.out.print(board);
+
+		if (args.length > 6) {
+			try (DBConnection db = new DBConnection(args[2], args[3], args[4], args[5], args[6],
+					System.getProperty(Game.GAME_PROPERTY))) {
+				db.setSize(record.getBoardSize());
+				db.setupGrid();
+				db.loadPosition(board);
+				System.out.println("Position loaded into " + db.getDatabaseName());
+
+				if (args.length > 7) {
+					PlayerWrapper player = new PlayerWrapper(args[7], Game.createPlayer(args[7]), symbol);
+					db.setProfile(true);
+					long beforeQuery = System.nanoTime();
+					Cell cell = db.requestMove(player, 0, 0, null);
+					long queryNs = System.nanoTime() - beforeQuery;
+					System.out.println(player.getName() + " chose " +
+							GameRecord.notation(cell.getY() * board.getSize() + cell.getX(), board.getSize()) + " in " +
+							String.format(Locale.ROOT, "%.3f", queryNs / 1_000_000.0) + " ms");
+					new ProfileReport(Map.of(player.getName(), player.getProfiles())).print(System.out, true);
+				}
+			} catch (Throwable t) {
+				t.printStackTrace();
+			}
+		}
+	}
+}
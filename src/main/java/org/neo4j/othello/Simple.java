@@ -14,7 +14,7 @@ public class Simple implements Player {
 			MATCH (c:Cell) WHERE c.state IS NULL
 			AND EXISTS {
 			  p=(c)-[r]-(:Cell {state: other})
-			  ((:Cell {state: other})-[{direction: r.direction}]-(:Cell {state: other})){0,5}
+			  ((:Cell {state: other})-[{direction: r.direction}]-(:Cell {state: other})){0,}
 			  (:Cell {state: other})-[{direction: r.direction}]-(:Cell {state: $symbol})
 			}
 			RETURN c AS cell LIMIT 1
@@ -0,0 +1,244 @@
+package org.neo4j.othello;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * A small HTTP server that lets anyone watch the games in a browser, or with any
+ * client of server-sent events. The games publish their events (start, moves,
+ * passes and the end) at /events and a page that shows the boards is served at /.
+ *
+ * Publishing never blocks the game: every viewer has a bounded queue of events that
+ * is sent by its own thread, and a viewer that falls too far behind is dropped. A
+ * viewer that connects gets the last event of every game first, and every event has
+ * the whole board, so it can start watching at any time.
+ */
+public class Spectators implements AutoCloseable {
+	private static final int QUEUE_SIZE = 1024;
+	private static final long KEEP_ALIVE_NS = TimeUnit.SECONDS.toNanos(15);
+
+	private final HttpServer server;
+	private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+	private final List<Viewer> viewers = new CopyOnWriteArrayList<>();
+	private final Map<String, byte[]> lastEvents = new LinkedHashMap<>();
+
+	/**
+	 * @param port The port to listen on, on all addresses, or 0 for any free port
+	 */
+	public Spectators(int port) throws IOException {
+		server = HttpServer.create(new InetSocketAddress(port), 0);
+		server.createContext("/events", this::stream);
+		server.createContext("/", this::page);
+		server.setExecutor(executor);
+		server.start();
+	}
+
+	public int getPort() {
+		return server.getAddress().getPort();
+	}
+
+	/**
+	 * @return The number of viewers connected
+	 */
+	public int getViewers() {
+		return viewers.size();
+	}
+
+	/**
+	 * Send an event to all viewers, without waiting for any of them.
+	 *
+	 * @param game   The game the event belongs to, viewers joining later get the last
+	 *               event of every game
+	 * @param type   The type of the event, e.g. "move"
+	 * @param fields The content of the event, sent as JSON
+	 */
+	public void publish(String game, String type, Map<String, Object> fields) {
+		byte[] event = ("event: " + type + "\ndata: " + toJson(fields) + "\n\n").getBytes(StandardCharsets.UTF_8);
+		synchronized (lastEvents) {
+			lastEvents.put(game, event);
+			for (Viewer viewer : viewers) {
+				viewer.offer(event);
+			}
+		}
+	}
+
+	private void stream(HttpExchange exchange) throws IOException {
+		Viewer viewer = new Viewer();
+		synchronized (lastEvents) {
+			for (byte[] event : lastEvents.values()) {
+				viewer.offer(event);
+			}
+			viewers.add(viewer);
+		}
+		exchange.getResponseHeaders().add("Content-Type", "text/event-stream; charset=utf-8");
+		exchange.getResponseHeaders().add("Cache-Control", "no-cache");
+		exchange.getResponseHeaders().add("Access-Control-Allow-Origin", "*");
+		exchange.sendResponseHeaders(200, 0);
+		try (OutputStream out = exchange.getResponseBody()) {
+			long lastWrite = System.nanoTime();
+			while (!viewer.dropped) {
+				byte[] event = viewer.events.poll(1, TimeUnit.SECONDS);
+				if (event != null) {
+					out.write(event);
+					out.flush();
+					lastWrite = System.nanoTime();
+				} else if (System.nanoTime() - lastWrite > KEEP_ALIVE_NS) {
+					out.write(":\n\n".getBytes(StandardCharsets.UTF_8));
+					out.flush();
+					lastWrite = System.nanoTime();
+				}
+			}
+		} catch (IOException | InterruptedException e) {
+			// The viewer went away, or the server is stopping
+		} finally {
+			viewers.remove(viewer);
+			exchange.close();
+		}
+	}
+
+	private void page(HttpExchange exchange) throws IOException {
+		byte[] page = PAGE.getBytes(StandardCharsets.UTF_8);
+		exchange.getResponseHeaders().add("Content-Type", "text/html; charset=utf-8");
+		exchange.sendResponseHeaders(200, page.length);
+		try (OutputStream out = exchange.getResponseBody()) {
+			out.write(page);
+		}
+	}
+
+	@Override
+	public void close() {
+		server.stop(0);
+		executor.shutdownNow();
+	}
+
+	private class Viewer {
+		private final BlockingQueue<byte[]> events = new ArrayBlockingQueue<>(QUEUE_SIZE);
+		private volatile boolean dropped = false;
+
+		private void offer(byte[] event) {
+			if (!dropped && !events.offer(event)) {
+				dropped = true;
+				viewers.remove(this);
+			}
+		}
+	}
+
+	/**
+	 * The fields of an event as one line of JSON. Values can be strings, numbers,
+	 * booleans, null, collections and maps.
+	 */
+	static String toJson(Object value) {
+		if (value == null) {
+			return "null";
+		}
+		if (value instanceof String s) {
+			StringBuilder sb = new StringBuilder("\"");
+			for (char c : s.toCharArray()) {
+				switch (c) {
+				case '"': sb.append("\\\""); break;
+				case '\\': sb.append("\\\\"); break;
+				case '\n': sb.append("\\n"); break;
+				default:
+					if (c < 0x20) {
+						sb.append(String.format(Locale.ROOT, "\\u%04x", (int)c));
+					} else {
+						sb.append(c);
+					}
+				}
+			}
+			return sb.append('"').toString();
+		}
+		if (value instanceof Map<?, ?> map) {
+			StringBuilder sb = new StringBuilder("{");
+			for (Map.Entry<?, ?> entry : map.entrySet()) {
+				if (sb.length() > 1) {
+					sb.append(',');
+				}
+				sb.append(toJson(entry.getKey().toString())).append(':').append(toJson(entry.getValue()));
+			}
+			return sb.append('}').toString();
+		}
+		if (value instanceof Collection<?> collection) {
+			StringBuilder sb = new StringBuilder("[");
+			for (Object element : collection) {
+				if (sb.length() > 1) {
+					sb.append(',');
+				}
+				sb.append(toJson(element));
+			}
+			return sb.append(']').toString();
+		}
+		return value.toString();
+	}
+
+	private static final String PAGE =
+			"""
+			<!DOCTYPE html>
+			<html>
+			<head>
+			<meta charset="utf-8">
+			<title>Othello</title>
+			<style>
+			body { font-family: sans-serif; }
+			.game { display: inline-block; vertical-align: top; margin: 1em; }
+			.board { border-collapse: collapse; background: #009067; }
+			.board td { width: 24px; height: 24px; border: 1px solid black; text-align: center; font-size: 20px; }
+			.X { color: black; }
+			.O { color: white; }
+			</style>
+			</head>
+			<body>
+			<div id="games"></div>
+			<script>
+			const games = {};
+			function show(e) {
+			  const event = JSON.parse(e.data);
+			  let div = games[event.game];
+			  if (!div) {
+			    div = games[event.game] = document.createElement("div");
+			    div.className = "game";
+			    document.getElementById("games").appendChild(div);
+			  }
+			  let rows = "";
+			  for (let y = 0; y < event.size; y++) {
+			    rows += "<tr>";
+			    for (let x = 0; x < event.size; x++) {
+			      const state = event.board[y * event.size + x];
+			      rows += state === "." ? "<td></td>" : "<td class='" + state + "'>&#9679;</td>";
+			    }
+			    rows += "</tr>";
+			  }
+			  const status = e.type === "end" ? event.message :
+			    e.type === "move" ? event.player + " played " + event.notation + " in " + event.queryMs.toFixed(1) + " ms" :
+			    e.type === "pass" ? event.player + " passed" : "Started";
+			  const text = document.createElement("div");
+			  text.textContent = event.game + ": " + event.black + " (BLACK) " + event.blackBricks + " - " +
+			    event.whiteBricks + " " + event.white + " (WHITE). " + status;
+			  div.innerHTML = "<table class='board'>" + rows + "</table>";
+			  div.prepend(text);
+			}
+			const source = new EventSource("events");
+			for (const type of ["start", "move", "pass", "end"]) {
+			  source.addEventListener(type, show);
+			}
+			</script>
+			</body>
+			</html>
+			""";
+}
@@ -1,5 +1,8 @@
 package org.neo4j.othello;
 
+import java.math.BigDecimal;
+import java.util.concurrent.TimeUnit;
+
 public class TimeLimitException extends Exception {
 	private static final long serialVersionUID = 1L;
 	
@@ -11,6 +14,12 @@ public class TimeLimitException extends Exception {
 				" s, which is above limit of " + limit + " s");
 	}
 
+	public TimeLimitException(PlayerWrapper player, long time, Clock clock) {
+		this(player, time, "Player " + player.getName() + " (" + player.getColor() + ") ran out of time on the clock, " +
+				"by " + TimeUnit.NANOSECONDS.toMillis(-clock.getRemainingNs()) + " ms with a move of " + time +
+				" s (time control " + seconds(clock.getBankNs()) + "+" + seconds(clock.getIncrementNs()) + " s)");
+	}
+
 	private TimeLimitException(PlayerWrapper player, long time, String message) {
 		super(message);
 		
@@ -18,6 +27,10 @@ public class TimeLimitException extends Exception {
 		this.time = time;
 	}
 	
+	private static String seconds(long ns) {
+		return BigDecimal.valueOf(ns, 9).stripTrailingZeros().toPlainString();
+	}
+
 	public PlayerWrapper getPlayer() {
 		return player;
 	}
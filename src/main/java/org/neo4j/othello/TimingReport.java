@@ -0,0 +1,93 @@
+package org.neo4j.othello;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.PrintWriter;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Iterator;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Prints and exports the phase timings of a number of players, as a table on the
+ * console or as CSV or JSON files.
+ */
+public class TimingReport {
+	private static final double[] PERCENTILES = { 50, 90, 99 };
+
+	private final Map<String, PhaseTimings> timings;
+
+	/**
+	 * @param timings The timings per player name, in the order they should be reported
+	 */
+	public TimingReport(Map<String, PhaseTimings> timings) {
+		this.timings = timings;
+	}
+
+	public void print(PrintStream out) {
+		out.println(String.format(Locale.ROOT, "%-24s %-15s %6s %10s %10s %10s %10s %10s", "Player", "Phase", "Count",
+				"Mean ms", "p50 ms", "p90 ms", "p99 ms", "Max ms"));
+		for (Map.Entry<String, PhaseTimings> entry : timings.entrySet()) {
+			for (Phase phase : Phase.values()) {
+				LatencyHistogram h = entry.getValue().get(phase);
+				if (h.getCount() == 0) {
+					continue;
+				}
+				out.println(String.format(Locale.ROOT, "%-24s %-15s %6d %10.3f %10.3f %10.3f %10.3f %10.3f",
+						entry.getKey(), phase.getDescription(), h.getCount(), ms(h.getMeanNs()),
+						ms(h.getPercentileNs(PERCENTILES[0])), ms(h.getPercentileNs(PERCENTILES[1])),
+						ms(h.getPercentileNs(PERCENTILES[2])), ms(h.getMaxNs())));
+			}
+		}
+	}
+
+	/**
+	 * Write the report as JSON if the file name ends with .json, otherwise as CSV.
+	 */
+	public void write(Path file) throws IOException {
+		try (PrintWriter out = new PrintWriter(Files.newBufferedWriter(file))) {
+			if (file.getFileName().toString().toLowerCase(Locale.ROOT).endsWith(".json")) {
+				writeJson(out);
+			} else {
+				writeCsv(out);
+			}
+		}
+	}
+
+	public void writeCsv(PrintWriter out) {
+		out.println("player,phase,count,mean_ns,p50_ns,p90_ns,p99_ns,max_ns,total_ns");
+		for (Map.Entry<String, PhaseTimings> entry : timings.entrySet()) {
+			for (Phase phase : Phase.values()) {
+				LatencyHistogram h = entry.getValue().get(phase);
+				out.println(String.format(Locale.ROOT, "%s,%s,%d,%.0f,%d,%d,%d,%d,%d", entry.getKey(), phase.name(),
+						h.getCount(), h.getMeanNs(), h.getPercentileNs(PERCENTILES[0]),
+						h.getPercentileNs(PERCENTILES[1]), h.getPercentileNs(PERCENTILES[2]), h.getMaxNs(),
+						h.getTotalNs()));
+			}
+		}
+	}
+
+	public void writeJson(PrintWriter out) {
+		out.println("{");
+		for (Iterator<Map.Entry<String, PhaseTimings>> players = timings.entrySet().iterator(); players.hasNext();) {
+			Map.Entry<String, PhaseTimings> entry = players.next();
+			out.println("  \"" + entry.getKey().replace("\\", "\\\\").replace("\"", "\\\"") + "\": {");
+			Phase[] phases = Phase.values();
+			for (int i = 0; i < phases.length; i++) {
+				LatencyHistogram h = entry.getValue().get(phases[i]);
+				out.println(String.format(Locale.ROOT,
+						"    \"%s\": {\"count\": %d, \"mean_ns\": %.0f, \"p50_ns\": %d, \"p90_ns\": %d, \"p99_ns\": %d, \"max_ns\": %d, \"total_ns\": %d}%s",
+						phases[i].name(), h.getCount(), h.getMeanNs(), h.getPercentileNs(PERCENTILES[0]),
+						h.getPercentileNs(PERCENTILES[1]), h.getPercentileNs(PERCENTILES[2]), h.getMaxNs(),
+						h.getTotalNs(), i < phases.length - 1 ? "," : ""));
+			}
+			out.println("  }" + (players.hasNext() ? "," : ""));
+		}
+		out.println("}");
+	}
+
+	private static double ms(double ns) {
+		return ns / 1_000_000.0;
+	}
+}
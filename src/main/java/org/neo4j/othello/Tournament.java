@@ -0,0 +1,372 @@
+package org.neo4j.othello;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Headless round robin where every player meets every other player twice, once
+ * with each color. Games run in parallel, one per database in the list of
+ * database names (or more with -Dothello.gamesPerDatabase), and no game frame
+ * is ever created.
+ */
+public class Tournament {
+	private static final String DEFAULT_RESULT_FILE = "tournament.csv";
+	private static final String GAMES_PER_DATABASE_PROPERTY = "othello.gamesPerDatabase";
+
+	public static void main(String[] args) {
+		////////////////////////////////////////////////////////
+		// Check and parse all command line arguments
+
+		if (args.length < 6) {
+			System.err.println("Incorrect number of arguments");
+			System.err.println("Usage: mvn exec:java -Dexec.mainClass=org.neo4j.othello.Tournament -Dexec.args=\"Player1,Player2,... DB_URI DB_USER DB_PWD DB_NAME1,DB_NAME2,... API_KEY [TIME_LIMIT_S [RESULT_FILE]]\"");
+			System.err.println("");
+			return;
+		}
+
+		String[] playerNames = args[0].split(",");
+		for (String playerName : playerNames) {
+			try {
+				if (Game.createPlayer(playerName) instanceof Human) {
+					System.err.println("Human players can not take part in a tournament");
+					return;
+				}
+			} catch (IllegalArgumentException e) {
+				System.err.println(e.getMessage());
+				return;
+			} catch (Throwable t) {
+				System.err.println("Player class name " + playerName + " not found");
+				return;
+			}
+		}
+		if (playerNames.length < 2) {
+			System.err.println("A tournament needs at least two players");
+			return;
+		}
+
+		String[] dbNames = args[4].split(",");
+
+		long timeLimitS = -1;
+		if (args.length > 6) {
+			try {
+				timeLimitS = Long.parseLong(args[6]);
+			} catch (Throwable t) {
+				System.err.println("Incorrect format of time limit, should be seconds as integer, but was: " + args[6]);
+				return;
+			}
+		}
+
+		Path resultFile = Path.of(args.length > 7 ? args[7] : DEFAULT_RESULT_FILE);
+
+		boolean verify = Boolean.getBoolean(Game.VERIFY_PROPERTY);
+		boolean profile = Boolean.getBoolean(Game.PROFILE_PROPERTY);
+		int warmUpRuns = Integer.getInteger(Game.WARMUP_PROPERTY, Game.DEFAULT_WARMUP_RUNS);
+
+		// One cache for all games, the openings come up in every game
+		int moveCacheSize = Integer.getInteger(Game.MOVE_CACHE_PROPERTY, 0);
+		MoveCache moveCache = moveCacheSize > 0 ? new MoveCache(moveCacheSize) : null;
+
+		Clock clock;
+		try {
+			clock = Game.parseClock();
+		} catch (NumberFormatException e) {
+			System.err.println("Incorrect format of clock, should be seconds with an optional increment in seconds, " +
+					"like 300+2, but was: " + System.getProperty(Game.CLOCK_PROPERTY));
+			return;
+		}
+
+		int size = Integer.getInteger(Game.SIZE_PROPERTY, Board.DEFAULT_SIZE);
+		Duration networkAllowance;
+		try {
+			Board.checkSize(size);
+			networkAllowance = Game.parseNetworkAllowance();
+		} catch (IllegalArgumentException e) {
+			System.err.println(e.getMessage());
+			return;
+		}
+
+		// More than one game per database means that each game only uses its own cells
+		int gamesPerDatabase = Integer.getInteger(GAMES_PER_DATABASE_PROPERTY, 1);
+		if (gamesPerDatabase < 1) {
+			System.err.println("Incorrect number of games per database: " + gamesPerDatabase);
+			return;
+		}
+
+
+		////////////////////////////////////////////////////////
+		// Play all games
+
+		int parallelGames = dbNames.length * gamesPerDatabase;
+		BlockingQueue<DBConnection> connections = new ArrayBlockingQueue<>(parallelGames);
+		ExecutorService executor = Executors.newFixedThreadPool(parallelGames);
+		BackendFactory factory = BackendFactory.create(args[1], args[2], args[3]);
+		Spectators spectators = Game.startSpectators();
+		GameJournal journal = null;
+		try {
+			// Every move is journaled, and with -Dothello.resume the games in the journal are not played again
+			journal = Game.openJournal();
+			final GameJournal gameJournal = journal;
+
+			for (String dbName : dbNames) {
+				for (int i = 0; i < gamesPerDatabase; i++) {
+					String game = gamesPerDatabase > 1 ? "t" + i : null;
+					DBConnection connection = new DBConnection(factory, dbName.trim(), args[5], game);
+					connection.setSize(size);
+					connection.setNetworkAllowance(networkAllowance);
+					connection.setProfile(profile);
+					connection.setMoveCache(moveCache);
+					connections.add(connection);
+				}
+			}
+
+			List<Future<GameResult>> futures = new ArrayList<>();
+			for (String black : playerNames) {
+				for (String white : playerNames) {
+					if (!black.equals(white)) {
+						final long limit = timeLimitS;
+						futures.add(executor.submit(() -> play(black, white, connections, limit, clock, verify,
+								warmUpRuns, spectators, gameJournal)));
+					}
+				}
+			}
+
+			long start = System.nanoTime();
+			List<GameResult> results = new ArrayList<>();
+			for (Future<GameResult> future : futures) {
+				GameResult result = future.get();
+				results.add(result);
+				System.err.println("[" + results.size() + "/" + futures.size() + "] " + result.black.getName() +
+						" vs " + result.white.getName() + ": " + result.result.getMessage());
+			}
+			System.err.println("Played " + results.size() + " games in " +
+					TimeUnit.NANOSECONDS.toSeconds(System.nanoTime() - start) + " s");
+
+			writeResults(resultFile, results);
+			printStandings(playerNames, results);
+			reportTimings(playerNames, results);
+			if (factory.getMetrics() != null) {
+				factory.getMetrics().print(System.out);
+			}
+			if (moveCache != null) {
+				moveCache.print(System.out);
+			}
+			if (profile) {
+				reportProfiles(playerNames, results);
+			}
+		} catch (Throwable t) {
+			t.printStackTrace();
+		} finally {
+			executor.shutdownNow();
+			for (DBConnection connection : connections) {
+				try {
+					connection.close();
+				} catch (Exception e) {
+					// Ignore
+				}
+			}
+			factory.close();
+			if (spectators != null) {
+				spectators.close();
+			}
+			if (journal != null) {
+				try {
+					journal.close();
+				} catch (IOException e) {
+					System.err.println("Failed to close the game journal: " + e.getMessage());
+				}
+			}
+		}
+	}
+
+	private static GameResult play(String black, String white, BlockingQueue<DBConnection> connections,
+			long timeLimitS, Clock clock, boolean verify, int warmUpRuns, Spectators spectators, GameJournal journal)
+			throws Exception {
+		PlayerWrapper blackPlayer = new PlayerWrapper(black, Game.createPlayer(black), "X");
+		PlayerWrapper whitePlayer = new PlayerWrapper(white, Game.createPlayer(white), "O");
+		if (clock != null) {
+			blackPlayer.setClock(clock.copy());
+			whitePlayer.setClock(clock.copy());
+		}
+
+		GameJournal.JournaledGame journaled = journal == null || !Boolean.getBoolean(Game.RESUME_PROPERTY) ? null :
+				journal.find(black, white);
+		if (journaled != null && journaled.isFinished()) {
+			// Played before the tournament was interrupted
+			GameRecord record = journaled.getRecord();
+			PlayerWrapper winner = "X".equals(journaled.getWinner()) ? blackPlayer :
+					"O".equals(journaled.getWinner()) ? whitePlayer : null;
+			MatchResult result = new MatchResult(MatchResult.Outcome.valueOf(record.getOutcome()), winner,
+					record.positionAt(record.size()), record, journaled.getMessage());
+			return new GameResult(blackPlayer, whitePlayer, journaled.getDatabase(), result, 0);
+		}
+
+		DBConnection db = connections.take();
+		try {
+			long start = System.nanoTime();
+			Match match = new Match(blackPlayer, whitePlayer, db, null, timeLimitS, verify, warmUpRuns);
+			match.setSpectators(spectators);
+			match.setJournal(journal);
+			if (journaled != null && journaled.getRecord().getBoardSize() == db.getSize()) {
+				match.resume(journaled);
+			}
+			MatchResult result = match.play();
+			Game.saveRecord(result.getRecord());
+			String database = db.getGame() == null ? db.getDatabaseName() : db.getDatabaseName() + "/" + db.getGame();
+			return new GameResult(blackPlayer, whitePlayer, database, result, System.nanoTime() - start);
+		} finally {
+			connections.put(db);
+		}
+	}
+
+	private static void writeResults(Path file, List<GameResult> results) throws IOException {
+		try (PrintWriter out = new PrintWriter(Files.newBufferedWriter(file))) {
+			out.println("black,white,database,outcome,winner,black_bricks,white_bricks,duration_ms,black_clock_ms,white_clock_ms,black_move_ms,white_move_ms");
+			for (GameResult r : results) {
+				PlayerWrapper winner = r.result.getWinner();
+				out.println(String.join(",",
+						r.black.getName(),
+						r.white.getName(),
+						r.database,
+						r.result.getOutcome().name(),
+						winner == null ? "" : winner.getName(),
+						Integer.toString(r.result.getBoard().count("X")),
+						Integer.toString(r.result.getBoard().count("O")),
+						Long.toString(TimeUnit.NANOSECONDS.toMillis(r.durationNs)),
+						formatClock(r.black.getClock()),
+						formatClock(r.white.getClock()),
+						formatTimes(r.black.getTimestampsNs()),
+						formatTimes(r.white.getTimestampsNs())));
+			}
+		}
+		System.err.println("Results written to " + file.toAbsolutePath());
+	}
+
+	/**
+	 * The time left on the clock in ms, empty if there is no clock.
+	 */
+	private static String formatClock(Clock clock) {
+		return clock == null ? "" : Long.toString(TimeUnit.NANOSECONDS.toMillis(clock.getRemainingNs()));
+	}
+
+	private static String formatTimes(List<Long> timestampsNs) {
+		return timestampsNs.stream()
+				.map(ns -> String.format("%.1f", ns / 1_000_000.0))
+				.collect(Collectors.joining(" "));
+	}
+
+	private static void printStandings(String[] playerNames, List<GameResult> results) {
+		Map<String, Standing> standings = new LinkedHashMap<>();
+		for (String name : playerNames) {
+			standings.put(name, new Standing(name));
+		}
+		for (GameResult r : results) {
+			standings.get(r.black.getName()).add(r, r.black);
+			standings.get(r.white.getName()).add(r, r.white);
+		}
+
+		System.out.println(String.format("%-24s %5s %5s %5s %5s %6s %7s %12s", "Player", "Games", "Won", "Drawn",
+				"Lost", "Failed", "Points", "Avg ms/move"));
+		standings.values().stream()
+				.sorted(Comparator.comparingDouble(Standing::points).reversed())
+				.forEach(s -> System.out.println(String.format("%-24s %5d %5d %5d %5d %6d %7.1f %12.1f", s.name,
+						s.games, s.won, s.drawn, s.lost, s.failed, s.points(), s.averageMs())));
+	}
+
+	private static void reportTimings(String[] playerNames, List<GameResult> results) {
+		Map<String, PhaseTimings> timings = new LinkedHashMap<>();
+		for (String name : playerNames) {
+			timings.put(name, new PhaseTimings());
+		}
+		for (GameResult r : results) {
+			timings.get(r.black.getName()).add(r.black.getTimings());
+			timings.get(r.white.getName()).add(r.white.getTimings());
+		}
+		Game.exportTimings(new TimingReport(timings), true);
+	}
+
+	private static void reportProfiles(String[] playerNames, List<GameResult> results) {
+		Map<String, List<QueryProfile>> profiles = new LinkedHashMap<>();
+		for (String name : playerNames) {
+			profiles.put(name, new ArrayList<>());
+		}
+		for (GameResult r : results) {
+			profiles.get(r.black.getName()).addAll(r.black.getProfiles());
+			profiles.get(r.white.getName()).addAll(r.white.getProfiles());
+		}
+		new ProfileReport(profiles).print(System.out, false);
+	}
+
+	private static class GameResult {
+		private final PlayerWrapper black;
+		private final PlayerWrapper white;
+		private final String database;
+		private final MatchResult result;
+		private final long durationNs;
+
+		private GameResult(PlayerWrapper black, PlayerWrapper white, String database, MatchResult result,
+				long durationNs) {
+			this.black = black;
+			this.white = white;
+			this.database = database;
+			this.result = result;
+			this.durationNs = durationNs;
+		}
+	}
+
+	private static class Standing {
+		private final String name;
+		private int games;
+		private int won;
+		private int drawn;
+		private int lost;
+		private int failed;
+		private long moves;
+		private long totalNs;
+
+		private Standing(String name) {
+			this.name = name;
+		}
+
+		private void add(GameResult r, PlayerWrapper player) {
+			games++;
+			MatchResult.Outcome outcome = r.result.getOutcome();
+			if (outcome == MatchResult.Outcome.FAILURE || outcome == MatchResult.Outcome.ABORTED) {
+				// Not the fault of either player, so it is neither a win nor a loss
+				failed++;
+			} else if (outcome == MatchResult.Outcome.DRAW) {
+				drawn++;
+			} else if (r.result.getWinner() == player) {
+				won++;
+			} else {
+				lost++;
+			}
+			for (long ns : player.getTimestampsNs()) {
+				moves++;
+				totalNs += ns;
+			}
+		}
+
+		private double points() {
+			return won + drawn / 2.0;
+		}
+
+		private double averageMs() {
+			return moves == 0 ? 0 : totalNs / 1_000_000.0 / moves;
+		}
+	}
+}